@@ -0,0 +1,87 @@
+/**
+ * The outcome of a solve that may have been stopped early: the best
+ * feasible flow found, whose value is a lower bound on the maximum flow,
+ * and the capacity of the smallest cut seen, an upper bound
+ *
+ * @version 10/19/26
+ */
+
+public class BoundedFlow
+{
+    /**
+     * The flow graph, or null for a progress report
+     */
+
+    private Graph flow;
+
+    /**
+     * The value of the flow found
+     */
+
+    private int lowerBound;
+
+    /**
+     * The capacity of the smallest cut seen
+     */
+
+    private int upperBound;
+
+    /**
+     * Constructor for objects of class BoundedFlow
+     * @param flow the flow graph, or null for a progress report
+     * @param lowerBound the value of the flow found
+     * @param upperBound the capacity of the smallest cut seen
+     */
+
+    public BoundedFlow(Graph flow, int lowerBound, int upperBound) {
+        this.flow = flow;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Get the flow
+     * @return the flow graph, in the same form as Network.maxFlow, or null
+     *         for a progress report
+     */
+
+    public Graph flow() {
+        return flow;
+    }
+
+    /**
+     * Get the lower bound
+     * @return the value of the flow found
+     */
+
+    public int lowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Get the upper bound
+     * @return the capacity of the smallest cut seen
+     */
+
+    public int upperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Is the flow known to be maximum?
+     * @return true if the bounds meet
+     */
+
+    public boolean isOptimal() {
+        return lowerBound == upperBound;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "[" + lowerBound + "," + upperBound + "]";
+    }
+}
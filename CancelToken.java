@@ -0,0 +1,31 @@
+/**
+ * A flag a caller can raise to ask a running solve to stop early
+ *
+ * @version 10/19/26
+ */
+
+public class CancelToken
+{
+    /**
+     * The cancelled flag
+     */
+
+    private volatile boolean cancelled;
+
+    /**
+     * Ask the solve to stop at its next check
+     */
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Has the solve been asked to stop?
+     * @return true or false
+     */
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
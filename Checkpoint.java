@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Periodic snapshots of a solve in progress: the flow on every arc of the
+ * residual graph, plus the distance labels for push-relabel. A snapshot is
+ * copied out of the solver and written on a background thread to a
+ * temporary file, which then replaces the checkpoint file, so the solver
+ * only pauses for the copy and a crash never leaves a half-written
+ * checkpoint. If the previous snapshot is still being written the new one is
+ * skipped.
+ *
+ * A checkpoint records a fingerprint of the residual graph it was taken
+ * from and can only be restored into a graph with the same arcs and
+ * capacities.
+ *
+ * @version 10/19/26
+ */
+
+class Checkpoint
+{
+    /**
+     * Marks a checkpoint file
+     */
+
+    private static final int MAGIC = 0x4e464350;
+
+    /**
+     * The file format version
+     */
+
+    private static final int VERSION = 1;
+
+    /**
+     * Bytes written per chunk
+     */
+
+    private static final int CHUNK = 1 << 20;
+
+    /**
+     * The checkpoint file
+     */
+
+    private Path file;
+
+    /**
+     * The engine being checkpointed
+     */
+
+    private Network.Engine engine;
+
+    /**
+     * The fingerprint of the residual graph before solving
+     */
+
+    private long fingerprint;
+
+    /**
+     * Milliseconds between snapshots
+     */
+
+    private long interval;
+
+    /**
+     * When the last snapshot was taken
+     */
+
+    private long last;
+
+    /**
+     * The snapshot being written, if any
+     */
+
+    private Thread writing;
+
+    /**
+     * The first failure of a background write
+     */
+
+    private volatile IOException failure;
+
+    /**
+     * Constructor for objects of class Checkpoint
+     * @param fileName the checkpoint file
+     * @param engine the engine being checkpointed
+     * @param r the residual graph before solving
+     * @param interval milliseconds between snapshots
+     */
+
+    Checkpoint(String fileName, Network.Engine engine, ResidualGraph r, long interval) {
+        this.file = Paths.get(fileName);
+        this.engine = engine;
+        this.fingerprint = fingerprint(r);
+        this.interval = interval;
+        this.last = System.currentTimeMillis();
+    }
+
+    /**
+     * Is a snapshot due?
+     * @return true once the interval has passed since the last snapshot
+     */
+
+    boolean due() {
+        return System.currentTimeMillis() - last >= interval;
+    }
+
+    /**
+     * Take a snapshot and write it in the background, unless the previous
+     * one is still being written
+     * @param flow the flow on every arc
+     * @param labels the distance labels, or null
+     */
+
+    void save(int[] flow, int[] labels) {
+        last = System.currentTimeMillis();
+        if (writing != null && writing.isAlive()) return;
+        final int[] flowCopy = flow.clone();
+        final int[] labelCopy = (labels == null) ? new int[0] : labels.clone();
+        writing = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    write(flowCopy, labelCopy);
+                }
+                catch (IOException ex) {
+                    if (failure == null) failure = ex;
+                }
+            }
+        }, "checkpoint");
+        writing.setDaemon(true);
+        writing.start();
+    }
+
+    /**
+     * Wait for the snapshot being written, if any
+     * @throws IOException if any snapshot could not be written
+     */
+
+    void finish() throws IOException {
+        if (writing != null) {
+            try {
+                writing.join();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Write a snapshot to the temporary file and move it over the checkpoint
+     * @param flow the flow on every arc
+     * @param labels the distance labels
+     * @throws IOException if the file cannot be written
+     */
+
+    private void write(int[] flow, int[] labels) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(engine.ordinal());
+            buffer.putLong(fingerprint).putInt(flow.length).putInt(labels.length);
+            writeInts(channel, buffer, flow);
+            writeInts(channel, buffer, labels);
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        finally {
+            channel.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the engine a checkpoint was taken with
+     * @param fileName the checkpoint file
+     * @return the engine
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+
+    static Network.Engine engine(String fileName) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            fill(channel, header);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(fileName + " is not a checkpoint");
+            }
+            int engine = header.getInt();
+            if (engine < 0 || engine >= Network.Engine.values().length) {
+                throw new IOException(fileName + " names no engine (" + engine + ")");
+            }
+            return Network.Engine.values()[engine];
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Load a checkpoint into a residual graph that has not been solved yet,
+     * setting the flow and residual of every arc
+     * @param fileName the checkpoint file
+     * @param r the residual graph
+     * @return the distance labels saved with the checkpoint, empty if none
+     * @throws IOException if the file cannot be read or does not match the graph
+     */
+
+    static int[] restore(String fileName, ResidualGraph r) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK);
+            buffer.limit(28);
+            fill(channel, buffer);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(fileName + " is not a checkpoint");
+            }
+            buffer.getInt();
+            if (buffer.getLong() != fingerprint(r) || buffer.getInt() != r.m) {
+                throw new IOException(fileName + " was not taken from this network");
+            }
+            int count = buffer.getInt();
+            if (count < 0 || count > r.n) throw new IOException(fileName + " holds " + count + " labels for " + r.n + " vertices");
+            int[] labels = new int[count];
+            int[] flow = new int[r.m];
+            buffer.clear().flip();
+            readInts(channel, buffer, flow);
+            readInts(channel, buffer, labels);
+            for (int a = 0; a < r.m; a++) {
+                r.residual[a] -= flow[a] - r.flow[a];
+                r.flow[a] = flow[a];
+            }
+            return labels;
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fingerprint the arcs and capacities of a residual graph
+     * @param r the residual graph
+     * @return the fingerprint
+     */
+
+    private static long fingerprint(ResidualGraph r) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        for (int a = 0; a < r.m; a++) {
+            buffer.clear();
+            buffer.putInt(r.tail(a)).putInt(r.head(a)).putInt(r.residual[a]).putInt(r.flow[a]);
+            crc.update(buffer.array(), 0, 16);
+        }
+        return ((long)r.n << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Write ints through a buffer, emptying it into the channel whenever it fills
+     * @param channel the channel
+     * @param buffer the buffer, in write mode
+     * @param values the ints
+     * @throws IOException if the channel fails
+     */
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        int at = 0;
+        while (at < values.length) {
+            if (buffer.remaining() < 4) {
+                buffer.flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                buffer.clear();
+            }
+            IntBuffer ints = buffer.asIntBuffer();
+            int count = Math.min(ints.remaining(), values.length - at);
+            ints.put(values, at, count);
+            buffer.position(buffer.position() + 4 * count);
+            at += count;
+        }
+    }
+
+    /**
+     * Read ints through a buffer, refilling it from the channel whenever it empties
+     * @param channel the channel
+     * @param buffer the buffer, in read mode
+     * @param values receives the ints
+     * @throws IOException if the channel fails or ends early
+     */
+
+    private static void readInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        int at = 0;
+        while (at < values.length) {
+            if (buffer.remaining() < 4) {
+                buffer.compact();
+                buffer.limit(Math.min(buffer.capacity(), buffer.position() + 4 * (values.length - at)));
+                fill(channel, buffer);
+            }
+            IntBuffer ints = buffer.asIntBuffer();
+            int count = Math.min(ints.remaining(), values.length - at);
+            ints.get(values, at, count);
+            buffer.position(buffer.position() + 4 * count);
+            at += count;
+        }
+    }
+
+    /**
+     * Read from a channel until the buffer is full up to its limit, then flip it
+     * @param channel the channel
+     * @param buffer the buffer
+     * @throws IOException if the channel fails or ends early
+     */
+
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("checkpoint ends early");
+        }
+        buffer.flip();
+    }
+}
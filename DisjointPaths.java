@@ -0,0 +1,75 @@
+import java.util.List;
+
+/**
+ * The edge-disjoint paths between a source and a sink, with every edge
+ * counted as one unit whatever its weight. Unless the search stopped at a
+ * limit, the number of paths is the edge connectivity between the two, and
+ * the separating edges are a smallest set whose removal disconnects them.
+ *
+ * @version 10/19/26
+ */
+
+public class DisjointPaths
+{
+    /**
+     * The paths, each carrying one unit
+     */
+
+    private List<FlowPath> paths;
+
+    /**
+     * The positions of the separating edges in the graph's edge list
+     */
+
+    private List<Integer> separating;
+
+    /**
+     * Constructor for objects of class DisjointPaths
+     * @param paths the paths
+     * @param separating the positions of the separating edges in the
+     *        graph's edge list, or empty if the search stopped at a limit
+     */
+
+    public DisjointPaths(List<FlowPath> paths, List<Integer> separating) {
+        this.paths = paths;
+        this.separating = separating;
+    }
+
+    /**
+     * Get the count
+     * @return the number of edge-disjoint paths
+     */
+
+    public int count() {
+        return paths.size();
+    }
+
+    /**
+     * Get the paths
+     * @return the edge-disjoint paths
+     */
+
+    public List<FlowPath> paths() {
+        return paths;
+    }
+
+    /**
+     * Get the separating edges
+     * @return the positions, in Graph.getEdgesAsStrings order, of a smallest
+     *         set of edges separating the source from the sink; empty if the
+     *         search stopped at a limit
+     */
+
+    public List<Integer> separatingEdges() {
+        return separating;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "DisjointPaths" + paths + " cut " + separating;
+    }
+}
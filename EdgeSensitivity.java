@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How the maximum flow value of a network depends on each edge's capacity,
+ * indexed by the edge's position in the graph's edge list. An edge in every
+ * minimum cut is a bottleneck: raising its capacity raises the flow. An edge
+ * in some minimum cut is sensitive: lowering its capacity lowers the flow.
+ * Every bottleneck with capacity is also sensitive.
+ *
+ * @version 10/19/26
+ */
+
+public class EdgeSensitivity
+{
+    /**
+     * Whether each edge is in every minimum cut
+     */
+
+    private boolean[] every;
+
+    /**
+     * Whether each edge is in some minimum cut
+     */
+
+    private boolean[] some;
+
+    /**
+     * Constructor for objects of class EdgeSensitivity
+     * @param every whether each edge is in every minimum cut
+     * @param some whether each edge is in some minimum cut
+     */
+
+    public EdgeSensitivity(boolean[] every, boolean[] some) {
+        this.every = every;
+        this.some = some;
+    }
+
+    /**
+     * Get the number of edges
+     * @return the number of edges analysed
+     */
+
+    public int size() {
+        return every.length;
+    }
+
+    /**
+     * Is an edge in every minimum cut, so that raising its capacity raises the flow?
+     * @param edge the position of the edge, in Graph.getEdgesAsStrings order
+     * @return true or false
+     */
+
+    public boolean inEveryMinCut(int edge) {
+        return every[edge];
+    }
+
+    /**
+     * Is an edge in some minimum cut, so that lowering its capacity lowers the flow?
+     * @param edge the position of the edge, in Graph.getEdgesAsStrings order
+     * @return true or false
+     */
+
+    public boolean inSomeMinCut(int edge) {
+        return some[edge];
+    }
+
+    /**
+     * Get the bottlenecks
+     * @return the positions of the edges in every minimum cut, in increasing order
+     */
+
+    public List<Integer> bottlenecks() {
+        return positions(every);
+    }
+
+    /**
+     * Get the sensitive edges
+     * @return the positions of the edges in some minimum cut, in increasing order
+     */
+
+    public List<Integer> sensitiveEdges() {
+        return positions(some);
+    }
+
+    /**
+     * List the positions that are set
+     * @param flags one flag per edge
+     * @return the positions
+     */
+
+    private static List<Integer> positions(boolean[] flags) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) list.add(i);
+        }
+        return list;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "EdgeSensitivity every " + bottlenecks() + " some " + sensitiveEdges();
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of solved (graph, source, sink) queries, keyed by the
+ * graph's content fingerprint, so a repeated query on an equal graph skips
+ * building the network and solving. Each entry is weighed by an estimate of
+ * its size in bytes, and the least recently used entries are evicted once
+ * the total weight passes the budget.
+ *
+ * @version 10/19/26
+ */
+
+public class FlowCache
+{
+    /**
+     * Estimated bytes per node, edge and cut vertex held by an entry
+     */
+
+    private static final long NODE_BYTES = 64, EDGE_BYTES = 160, CUT_BYTES = 48;
+
+    /**
+     * The entries, least recently used first
+     */
+
+    private LinkedHashMap<String, Entry> entries;
+
+    /**
+     * The engine used for every solve
+     */
+
+    private Network.Engine engine;
+
+    /**
+     * The most weight the cache holds
+     */
+
+    private long budget;
+
+    /**
+     * The total weight of the entries
+     */
+
+    private long weight;
+
+    /**
+     * Lookups answered from the cache, lookups that solved, and entries evicted
+     */
+
+    private long hits, misses, evictions;
+
+    /**
+     * Constructor for objects of class FlowCache
+     * @param budget the most estimated bytes the cache holds
+     * @param engine the engine used for every solve
+     */
+
+    public FlowCache(long budget, Network.Engine engine) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        this.budget = budget;
+        this.engine = engine;
+    }
+
+    /**
+     * Look up a query, solving it and caching the answer on a miss.
+     * Concurrent misses on the same query may each solve it.
+     * @param g the graph
+     * @param source the name of the source
+     * @param sink the name of the sink
+     * @return the answer
+     */
+
+    public Entry get(Graph g, String source, String sink) {
+        String key = g.fingerprint() + "\u0000" + source + "\u0000" + sink;
+        synchronized (this) {
+            Entry hit = entries.get(key);
+            if (hit != null) {
+                hits++;
+                return hit;
+            }
+            misses++;
+        }
+        Network n = new Network(g, source, sink);
+        Graph flow = n.maxFlow(engine);
+        Entry entry = new Entry(flow, n.flowValue(flow), n.sourceSide(), g.nodeCount(), g.edgeCount());
+        synchronized (this) {
+            Entry old = entries.put(key, entry);
+            if (old != null) weight -= old.weight;
+            weight += entry.weight;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (weight > budget && eldest.hasNext()) {
+                Entry e = eldest.next();
+                if (e == entry) break;
+                weight -= e.weight;
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The number of lookups answered from the cache
+     * @return the hit count
+     */
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * The number of lookups that had to solve
+     * @return the miss count
+     */
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * The number of entries evicted to stay within the budget
+     * @return the eviction count
+     */
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * The estimated bytes held
+     * @return the total weight of the entries
+     */
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * The number of entries held
+     * @return the number of entries
+     */
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A cached answer: the flow graph, its value as given by
+     * Network.flowValue, and the source side of a minimum cut
+     */
+
+    public static class Entry
+    {
+        private Graph flow;
+        private Integer value;
+        private List<String> cut;
+        private long weight;
+
+        /**
+         * Constructor for objects of class Entry
+         * @param flow the flow graph
+         * @param value the value of the flow
+         * @param cut the source side of a minimum cut
+         * @param nodes the number of nodes in the graph
+         * @param edges the number of edges in the graph
+         */
+
+        Entry(Graph flow, Integer value, List<String> cut, int nodes, int edges) {
+            this.flow = flow;
+            this.value = value;
+            this.cut = Collections.unmodifiableList(new ArrayList<String>(cut));
+            // The flow graph holds every edge and its residual twin
+            this.weight = NODE_BYTES * nodes + EDGE_BYTES * 2 * edges + CUT_BYTES * cut.size();
+        }
+
+        /**
+         * Get the flow. The graph is shared by every caller the entry
+         * serves, so it must not be changed, as by restoreGraph.
+         * @return the flow graph
+         */
+
+        public Graph flow() {
+            return flow;
+        }
+
+        /**
+         * Get the value
+         * @return the value of the flow, as given by Network.flowValue
+         */
+
+        public Integer value() {
+            return value;
+        }
+
+        /**
+         * Get the cut
+         * @return the source side of a minimum cut, which cannot be changed
+         */
+
+        public List<String> cut() {
+            return cut;
+        }
+
+        /**
+         * Get the weight
+         * @return the estimated bytes this entry holds
+         */
+
+        public long weight() {
+            return weight;
+        }
+    }
+}
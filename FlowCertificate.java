@@ -0,0 +1,99 @@
+/**
+ * The outcome of checking a flow against a cut. The flow is feasible when
+ * every edge keeps within its capacity and every vertex but the source and
+ * sink passes on all it takes in. A feasible flow whose value equals the
+ * capacity of a cut separating the source from the sink is a maximum flow,
+ * and the cut is a minimum cut.
+ *
+ * @version 10/19/26
+ */
+
+public class FlowCertificate
+{
+    /**
+     * The net flow out of the source
+     */
+
+    private long value;
+
+    /**
+     * The capacity of the cut
+     */
+
+    private long cutCapacity;
+
+    /**
+     * The first thing found wrong, or null
+     */
+
+    private String problem;
+
+    /**
+     * Constructor for objects of class FlowCertificate
+     * @param value the net flow out of the source
+     * @param cutCapacity the capacity of the cut
+     * @param problem the first thing found wrong, or null
+     */
+
+    public FlowCertificate(long value, long cutCapacity, String problem) {
+        this.value = value;
+        this.cutCapacity = cutCapacity;
+        this.problem = problem;
+    }
+
+    /**
+     * Get the flow value
+     * @return the net flow out of the source
+     */
+
+    public long value() {
+        return value;
+    }
+
+    /**
+     * Get the cut capacity
+     * @return the total capacity of the edges leaving the source side
+     */
+
+    public long cutCapacity() {
+        return cutCapacity;
+    }
+
+    /**
+     * Get what is wrong with the flow or the cut
+     * @return the first edge or vertex found breaking a rule, or a cut
+     *         that does not separate the source from the sink; null if none
+     */
+
+    public String problem() {
+        return problem;
+    }
+
+    /**
+     * Is the flow feasible and the cut a separating one?
+     * @return true or false
+     */
+
+    public boolean isValid() {
+        return problem == null;
+    }
+
+    /**
+     * Are the flow and the cut both optimal?
+     * @return true if valid and the flow value equals the cut capacity
+     */
+
+    public boolean isOptimal() {
+        return problem == null && value == cutCapacity;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        if (problem != null) return "FlowCertificate invalid: " + problem;
+        return "FlowCertificate value " + value + " cut " + cutCapacity + (isOptimal() ? " optimal" : " not optimal");
+    }
+}
@@ -0,0 +1,721 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming readers and writers for graphs in the DIMACS maximum flow
+ * format and as CSV edge lists. Files are read through a FileChannel into
+ * one reused buffer and parsed byte by byte, numbers straight into ints,
+ * and every edge goes straight into a Graph.Builder, so the only strings
+ * made are labels, and each node label only once. Writers fill one reused
+ * buffer the same way.
+ *
+ * A DIMACS file has a problem line "p max nodes arcs", the source and sink
+ * as "n id s" and "n id t", one "a from to capacity" line per arc and any
+ * number of "c" comment lines; nodes are numbered from 1 and become nodes
+ * labelled "1", "2" and so on. A CSV file has one "start,end,weight" line
+ * per edge, optionally followed by ",directed" (true or false) and
+ * ",label", the label running to the end of the line so it may hold
+ * commas; blank lines and lines starting with # are skipped. Node labels
+ * cannot hold commas. Anything left on a line after its last field, and a
+ * negative DIMACS capacity, is an error.
+ *
+ * @version 10/19/26
+ */
+
+public class FlowFiles
+{
+    /**
+     * The size of the read and write buffers
+     */
+
+    private static final int CHUNK = 1 << 20;
+
+    /**
+     * Read a maximum flow problem in DIMACS format
+     * @param fileName the file
+     * @return the network, with the file's source and sink
+     * @throws IOException if the file cannot be read or is not valid DIMACS
+     */
+
+    public static Network readDimacs(String fileName) throws IOException {
+        Input in = new Input(fileName);
+        try {
+            Graph.Builder builder = null;
+            int nodes = 0;
+            int source = -1;
+            int sink = -1;
+            for (int c = in.peek(); c >= 0; c = in.peek()) {
+                if (c == 'p') {
+                    in.read();
+                    in.word();
+                    nodes = in.integer();
+                    in.number();
+                    in.end();
+                    builder = new Graph.Builder(true);
+                    for (int i = 1; i <= nodes; i++) {
+                        builder.node(Integer.toString(i));
+                    }
+                } else if (c == 'n') {
+                    in.read();
+                    int id = node(in, nodes);
+                    in.blanks();
+                    int kind = in.read();
+                    if (kind == 's') source = id;
+                    else if (kind == 't') sink = id;
+                    else throw in.error("n line must end in s or t");
+                    in.blanks();
+                    in.end();
+                } else if (c == 'a') {
+                    in.read();
+                    if (builder == null) throw in.error("arc before the problem line");
+                    int from = node(in, nodes);
+                    int to = node(in, nodes);
+                    int capacity = in.integer();
+                    if (capacity < 0) throw in.error("negative capacity " + capacity);
+                    in.end();
+                    builder.edge(from, to, true, null, capacity);
+                } else if (c != 'c' && c != '\n' && c != '\r') {
+                    throw in.error("unknown line type " + (char)c);
+                }
+                in.endLine();
+            }
+            if (builder == null) throw in.error("no problem line");
+            if (source < 0 || sink < 0) throw in.error("no source or sink");
+            return new Network(builder.build(), Integer.toString(source + 1), Integer.toString(sink + 1));
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Read a node number from a DIMACS line
+     * @param in the input
+     * @param nodes the number of nodes
+     * @return the node id, from 0
+     * @throws IOException if the number is not a node
+     */
+
+    private static int node(Input in, int nodes) throws IOException {
+        long id = in.number();
+        if (id < 1 || id > nodes) throw in.error("no node " + id);
+        return (int)id - 1;
+    }
+
+    /**
+     * Read a graph from a CSV edge list
+     * @param fileName the file
+     * @param directed whether edges without a directed column are directed,
+     *        and whether the graph is
+     * @return the graph
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+
+    public static Graph readCsv(String fileName, boolean directed) throws IOException {
+        Input in = new Input(fileName);
+        try {
+            Graph.Builder builder = new Graph.Builder(directed);
+            Names names = new Names(builder);
+            for (int c = in.peek(); c >= 0; c = in.peek()) {
+                if (c != '#' && c != '\n' && c != '\r') {
+                    int start = names.id(in, in.field());
+                    in.comma();
+                    int end = names.id(in, in.field());
+                    in.comma();
+                    int weight = in.integer();
+                    boolean isDirected = directed;
+                    String label = null;
+                    if (in.peek() == ',') {
+                        in.read();
+                        int length = in.field();
+                        if (in.matches("true")) isDirected = true;
+                        else if (in.matches("false")) isDirected = false;
+                        else if (length > 0) throw in.error("directed must be true or false");
+                        if (in.peek() == ',') {
+                            in.read();
+                            label = in.text(in.field(true));
+                        }
+                    }
+                    in.end();
+                    builder.edge(start, end, isDirected, label, weight);
+                }
+                in.endLine();
+            }
+            return builder.build();
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write a graph as a DIMACS maximum flow problem. Nodes are numbered
+     * from 1 in graph order; an undirected edge becomes an arc each way,
+     * and edges naming a label that is not a node are left out.
+     * @param g the graph
+     * @param source the label of the source
+     * @param sink the label of the sink
+     * @param fileName the file
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the source or sink is not a node
+     */
+
+    public static void writeDimacs(Graph g, String source, String sink, String fileName) throws IOException {
+        int s = g.nodeId(source);
+        int t = g.nodeId(sink);
+        if (s < 0 || t < 0) throw new IllegalArgumentException("no node " + ((s < 0) ? source : sink));
+        int[] starts = new int[g.edgeCount()];
+        int[] ends = new int[g.edgeCount()];
+        g.edgeEndpoints(starts, ends);
+        int arcs = 0;
+        for (int e = 0; e < g.edgeCount(); e++) {
+            if (starts[e] < 0 || ends[e] < 0) continue;
+            arcs += g.isEdgeDirected(e) ? 1 : 2;
+        }
+        Output out = new Output(fileName);
+        try {
+            out.put("p max ").put(g.nodeCount()).put(' ').put(arcs).newline();
+            out.put("n ").put(s + 1).put(" s").newline();
+            out.put("n ").put(t + 1).put(" t").newline();
+            for (int e = 0; e < g.edgeCount(); e++) {
+                int from = starts[e];
+                int to = ends[e];
+                if (from < 0 || to < 0) continue;
+                long weight = weight(g, e);
+                out.put("a ").put(from + 1).put(' ').put(to + 1).put(' ').put(weight).newline();
+                if (!g.isEdgeDirected(e)) {
+                    out.put("a ").put(to + 1).put(' ').put(from + 1).put(' ').put(weight).newline();
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write a graph as a CSV edge list, with the directed column always and
+     * the label column when the edge has a label. Edges naming a label that
+     * is not a node are left out.
+     * @param g the graph
+     * @param fileName the file
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a label would not read back the
+     *         same, checked before anything is written
+     */
+
+    public static void writeCsv(Graph g, String fileName) throws IOException {
+        int[] starts = new int[g.edgeCount()];
+        int[] ends = new int[g.edgeCount()];
+        g.edgeEndpoints(starts, ends);
+        for (int e = 0; e < g.edgeCount(); e++) {
+            int from = starts[e];
+            int to = ends[e];
+            if (from < 0 || to < 0) continue;
+            check(g.nodeLabel(from), true, true);
+            check(g.nodeLabel(to), true, false);
+            if (g.edgeLabel(e) != null) check(g.edgeLabel(e), false, false);
+        }
+        Output out = new Output(fileName);
+        try {
+            for (int e = 0; e < g.edgeCount(); e++) {
+                int from = starts[e];
+                int to = ends[e];
+                if (from < 0 || to < 0) continue;
+                out.put(g.nodeLabel(from)).put(',').put(g.nodeLabel(to)).put(',').put(weight(g, e));
+                out.put(g.isEdgeDirected(e) ? ",true" : ",false");
+                if (g.edgeLabel(e) != null) out.put(',').put(g.edgeLabel(e));
+                out.newline();
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Check that a label written to a CSV file reads back the same: no line
+     * breaks, no blanks at either end, no commas in a node label, and no #
+     * starting a line
+     * @param label the label
+     * @param node whether it labels a node
+     * @param first whether it starts the line
+     * @throws IllegalArgumentException if it would not read back the same
+     */
+
+    private static void check(String label, boolean node, boolean first) {
+        boolean bad = label.indexOf('\n') >= 0 || label.indexOf('\r') >= 0 || (node && label.indexOf(',') >= 0)
+            || (first && label.startsWith("#"));
+        if (!label.isEmpty()) {
+            char a = label.charAt(0);
+            char z = label.charAt(label.length() - 1);
+            bad |= a == ' ' || a == '\t' || z == ' ' || z == '\t';
+        }
+        if (bad) throw new IllegalArgumentException("label \"" + label + "\" cannot be written to CSV");
+    }
+
+    /**
+     * The weight of an edge, 0 if it has none
+     * @param g the graph
+     * @param e the edge
+     * @return the weight
+     */
+
+    private static long weight(Graph g, int e) {
+        Integer weight = g.edgeWeight(e);
+        return (weight == null) ? 0 : weight;
+    }
+
+    /**
+     * A file read through one reused buffer, a byte at a time
+     */
+
+    static class Input
+    {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private byte[] bytes;
+        private int at, end;
+        private long line = 1;
+
+        /**
+         * The bytes of the last field read, and how many there are
+         */
+
+        private byte[] field = new byte[64];
+        private int fieldLength;
+
+        /**
+         * Open a file for reading
+         * @param fileName the file
+         * @throws IOException if the file cannot be opened
+         */
+
+        Input(String fileName) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocate(CHUNK);
+            this.bytes = buffer.array();
+        }
+
+        /**
+         * Look at the next byte without taking it
+         * @return the byte, or -1 at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+
+        int peek() throws IOException {
+            if (at == end) {
+                buffer.clear();
+                int count = 0;
+                while (count == 0) count = channel.read(buffer);
+                if (count < 0) return -1;
+                at = 0;
+                end = count;
+            }
+            return bytes[at] & 0xff;
+        }
+
+        /**
+         * Take the next byte
+         * @return the byte, or -1 at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+
+        int read() throws IOException {
+            int c = peek();
+            if (c >= 0) at++;
+            return c;
+        }
+
+        /**
+         * Skip spaces and tabs
+         * @throws IOException if the file cannot be read
+         */
+
+        void blanks() throws IOException {
+            for (int c = peek(); c == ' ' || c == '\t'; c = peek()) at++;
+        }
+
+        /**
+         * Skip one word and the blanks around it
+         * @throws IOException if the file cannot be read
+         */
+
+        void word() throws IOException {
+            blanks();
+            for (int c = peek(); c > ' '; c = peek()) at++;
+        }
+
+        /**
+         * Read a decimal integer, after any blanks
+         * @return the number
+         * @throws IOException if there is no number
+         */
+
+        long number() throws IOException {
+            blanks();
+            boolean negative = peek() == '-';
+            if (negative) at++;
+            long value = 0;
+            int digits = 0;
+            for (int c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                value = 10 * value + (c - '0');
+                digits++;
+                at++;
+            }
+            if (digits == 0) throw error("number expected");
+            blanks();
+            return negative ? -value : value;
+        }
+
+        /**
+         * Read a decimal integer that fits in an int, after any blanks
+         * @return the number
+         * @throws IOException if there is no number or it is too large
+         */
+
+        int integer() throws IOException {
+            long value = number();
+            if (value != (int)value) throw error(value + " is out of range");
+            return (int)value;
+        }
+
+        /**
+         * Take a comma
+         * @throws IOException if the next byte is not one
+         */
+
+        void comma() throws IOException {
+            if (read() != ',') throw error("comma expected");
+        }
+
+        /**
+         * Read bytes up to the next comma or the end of the line into the
+         * field buffer, dropping blanks at either end
+         * @return the length of the field
+         * @throws IOException if the file cannot be read
+         */
+
+        int field() throws IOException {
+            return field(false);
+        }
+
+        /**
+         * Read bytes into the field buffer, dropping blanks at either end
+         * @param last whether this is the last column, which runs to the end
+         *        of the line and so may hold commas
+         * @return the length of the field
+         * @throws IOException if the file cannot be read
+         */
+
+        int field(boolean last) throws IOException {
+            blanks();
+            int length = 0;
+            for (int c = peek(); c >= 0 && (last || c != ',') && c != '\n' && c != '\r'; c = peek()) {
+                if (length == field.length) field = Arrays.copyOf(field, 2 * length);
+                field[length++] = (byte)c;
+                at++;
+            }
+            while (length > 0 && (field[length - 1] == ' ' || field[length - 1] == '\t')) length--;
+            fieldLength = length;
+            return length;
+        }
+
+        /**
+         * Does the last field read hold exactly this ASCII word?
+         * @param word the word
+         * @return true or false
+         */
+
+        boolean matches(String word) {
+            if (fieldLength != word.length()) return false;
+            for (int i = 0; i < fieldLength; i++) {
+                if (field[i] != word.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Make a string of the last field read
+         * @param length its length
+         * @return the string
+         */
+
+        String text(int length) {
+            return new String(field, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Check that the line has nothing left on it
+         * @throws IOException if it does
+         */
+
+        void end() throws IOException {
+            int c = peek();
+            if (c >= 0 && c != '\n' && c != '\r') throw error("unexpected " + (char)c + " where the line should end");
+        }
+
+        /**
+         * Skip to the start of the next line
+         * @throws IOException if the file cannot be read
+         */
+
+        void endLine() throws IOException {
+            for (int c = read(); c >= 0 && c != '\n'; c = read()) {
+            }
+            line++;
+        }
+
+        /**
+         * Describe a problem at the current line
+         * @param message what is wrong
+         * @return the exception to throw
+         */
+
+        IOException error(String message) {
+            return new IOException("line " + line + ": " + message);
+        }
+
+        /**
+         * Close the file
+         * @throws IOException if it cannot be closed
+         */
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Node ids by label, looked up by the label's bytes so a label seen
+     * before costs no new string. Open addressing over a power-of-two
+     * table, with the bytes of every label kept end to end.
+     */
+
+    private static class Names
+    {
+        private Graph.Builder builder;
+        private int[] table = new int[1 << 10];
+        private int[] offset = new int[1 << 9];
+        private int[] hash = new int[1 << 9];
+        private byte[] arena = new byte[1 << 12];
+        private int count;
+
+        /**
+         * Constructor for objects of class Names
+         * @param builder the builder new nodes go to
+         */
+
+        Names(Graph.Builder builder) {
+            this.builder = builder;
+            Arrays.fill(table, -1);
+        }
+
+        /**
+         * Find or add the node named by the last field read
+         * @param in the input holding the field
+         * @param length the length of the field
+         * @return the node id
+         */
+
+        int id(Input in, int length) {
+            byte[] key = in.field;
+            int h = 0;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + key[i];
+            }
+            int mask = table.length - 1;
+            for (int slot = mix(h) & mask; ; slot = (slot + 1) & mask) {
+                int id = table[slot];
+                if (id < 0) break;
+                if (hash[id] == h && same(id, key, length)) return id;
+            }
+            // A new label: keep its bytes and make its one string
+            if (count == offset.length - 1) {
+                offset = Arrays.copyOf(offset, 2 * offset.length);
+                hash = Arrays.copyOf(hash, offset.length);
+            }
+            int from = offset[count];
+            if (from + length > arena.length) arena = Arrays.copyOf(arena, Math.max(2 * arena.length, from + length));
+            System.arraycopy(key, 0, arena, from, length);
+            offset[count + 1] = from + length;
+            hash[count] = h;
+            int id = builder.node(in.text(length));
+            if (id != count) throw new IllegalStateException("builder out of step");
+            count++;
+            if (2 * count > table.length) rehash();
+            else place(id);
+            return id;
+        }
+
+        /**
+         * Do the stored bytes of a label match a key?
+         */
+
+        private boolean same(int id, byte[] key, int length) {
+            if (offset[id + 1] - offset[id] != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (arena[offset[id] + i] != key[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Put a label in the table
+         */
+
+        private void place(int id) {
+            int mask = table.length - 1;
+            int slot = mix(hash[id]) & mask;
+            while (table[slot] >= 0) slot = (slot + 1) & mask;
+            table[slot] = id;
+        }
+
+        /**
+         * Double the table and put every label back
+         */
+
+        private void rehash() {
+            table = new int[2 * table.length];
+            Arrays.fill(table, -1);
+            for (int id = 0; id < count; id++) {
+                place(id);
+            }
+        }
+
+        /**
+         * Spread the bits of a hash code
+         */
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * A file written through one reused buffer
+     */
+
+    static class Output
+    {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private byte[] bytes;
+        private int at;
+        private byte[] digits = new byte[20];
+
+        /**
+         * Create or empty a file for writing
+         * @param fileName the file
+         * @throws IOException if the file cannot be opened
+         */
+
+        Output(String fileName) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocate(CHUNK);
+            this.bytes = buffer.array();
+        }
+
+        /**
+         * Write an ASCII character
+         * @param c the character
+         * @return this output
+         * @throws IOException if the file cannot be written
+         */
+
+        Output put(char c) throws IOException {
+            if (at == bytes.length) flush();
+            bytes[at++] = (byte)c;
+            return this;
+        }
+
+        /**
+         * Write a number in decimal
+         * @param value the number
+         * @return this output
+         * @throws IOException if the file cannot be written
+         */
+
+        Output put(long value) throws IOException {
+            if (value < 0) {
+                put('-');
+                if (value == Long.MIN_VALUE) return put("9223372036854775808");
+                value = -value;
+            }
+            int count = 0;
+            do {
+                digits[count++] = (byte)('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            if (bytes.length - at < count) flush();
+            while (count > 0) bytes[at++] = digits[--count];
+            return this;
+        }
+
+        /**
+         * Write a string, in UTF-8
+         * @param s the string
+         * @return this output
+         * @throws IOException if the file cannot be written
+         */
+
+        Output put(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) >= 0x80) {
+                    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+                        if (at == bytes.length) flush();
+                        bytes[at++] = b;
+                    }
+                    return this;
+                }
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (at == bytes.length) flush();
+                bytes[at++] = (byte)s.charAt(i);
+            }
+            return this;
+        }
+
+        /**
+         * End the line
+         * @return this output
+         * @throws IOException if the file cannot be written
+         */
+
+        Output newline() throws IOException {
+            return put('\n');
+        }
+
+        /**
+         * Empty the buffer into the file
+         * @throws IOException if the file cannot be written
+         */
+
+        private void flush() throws IOException {
+            buffer.clear().limit(at);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            at = 0;
+        }
+
+        /**
+         * Write what is left and close the file
+         * @throws IOException if the file cannot be written
+         */
+
+        void close() throws IOException {
+            try {
+                flush();
+            }
+            finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.List;
+
+/**
+ * One piece of a flow decomposition: an s-t path or a cycle,
+ * the labels along it, and the amount of flow it carries
+ *
+ * @version 10/19/26
+ */
+
+public class FlowPath
+{
+    /**
+     * The vertex names along the path; a cycle ends where it starts
+     */
+
+    private List<String> nodes;
+
+    /**
+     * The edge labels along the path
+     */
+
+    private List<String> edges;
+
+    /**
+     * The amount of flow
+     */
+
+    private int amount;
+
+    /**
+     * The cycle flag
+     */
+
+    private boolean cycle;
+
+    /**
+     * Constructor for objects of class FlowPath
+     * @param nodes the vertex names along the path
+     * @param edges the edge labels along the path
+     * @param amount the amount of flow
+     * @param cycle true for a cycle, false for an s-t path
+     */
+
+    public FlowPath(List<String> nodes, List<String> edges, int amount, boolean cycle) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.amount = amount;
+        this.cycle = cycle;
+    }
+
+    /**
+     * Get the vertex names
+     * @return the vertex names along the path
+     */
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the edge labels
+     * @return the edge labels along the path
+     */
+
+    public List<String> edges() {
+        return edges;
+    }
+
+    /**
+     * Get the amount
+     * @return the amount of flow carried
+     */
+
+    public int amount() {
+        return amount;
+    }
+
+    /**
+     * Is this a cycle?
+     * @return true for a cycle, false for an s-t path
+     */
+
+    public boolean isCycle() {
+        return cycle;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return (cycle ? "Cycle" : "Path") + nodes + " " + amount;
+    }
+}
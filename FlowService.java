@@ -0,0 +1,424 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous maximum-flow solves. Requests are run on a bounded executor,
+ * and a caller submitting more requests than the service will hold waits
+ * until earlier ones finish. Requests against the same graph that are waiting
+ * together are solved as one batch, which reads the graph into a network
+ * once and copies it for each source and sink. A batch borrows a
+ * SolverWorkspace from a pool kept by the service and returns it when done,
+ * so a steady stream of similar graphs reuses the same solver arrays.
+ *
+ * The service can also hold to a memory budget. Each request is weighed by
+ * a MemoryEstimate of its peak before anything is allocated, and one that
+ * would take the estimates of the requests running past the budget is
+ * rejected, made to wait, or solved with a compressed topology if that is
+ * enough to fit, as the service's admission policy says. A request that
+ * could never fit is always rejected.
+ *
+ * @version 10/19/26
+ */
+
+public class FlowService implements AutoCloseable
+{
+    /**
+     * What to do with a request that would go over the memory budget
+     */
+
+    public enum Admission {
+        /**
+         * Fail it at once with a RejectedExecutionException
+         */
+        REJECT,
+
+        /**
+         * Wait until enough running requests have finished
+         */
+        QUEUE,
+
+        /**
+         * Solve it with a compressed topology if that fits now, and
+         * otherwise wait like QUEUE
+         */
+        COMPRESS
+    }
+
+    /**
+     * The executor running the batches
+     */
+
+    private ExecutorService executor;
+
+    /**
+     * The engine used for every solve
+     */
+
+    private Network.Engine engine;
+
+    /**
+     * Permits for the requests the service will hold at once
+     */
+
+    private Semaphore capacity;
+
+    /**
+     * Batches waiting to start, by graph
+     */
+
+    private Map<Graph, List<Request>> pending;
+
+    /**
+     * The number of batches run so far
+     */
+
+    private AtomicInteger batches;
+
+    /**
+     * Workspaces not lent to a running batch
+     */
+
+    private ConcurrentLinkedQueue<SolverWorkspace> workspaces;
+
+    /**
+     * The most estimated bytes the running requests may hold
+     */
+
+    private long budget;
+
+    /**
+     * What to do with a request that would go over the budget
+     */
+
+    private Admission admission;
+
+    /**
+     * The estimated bytes held by the requests admitted and not yet
+     * finished; guarded by the service's lock
+     */
+
+    private long reserved;
+
+    /**
+     * Whether close has been called
+     */
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor for objects of class FlowService
+     * @param threads the number of solver threads; ignored with virtual threads
+     * @param limit the most requests held at once, running or waiting
+     * @param virtual true to run each batch on a virtual thread where the
+     *        runtime has them, falling back to the thread pool otherwise
+     * @param engine the engine used for every solve
+     */
+
+    public FlowService(int threads, int limit, boolean virtual, Network.Engine engine) {
+        this(threads, limit, virtual, engine, Long.MAX_VALUE, Admission.QUEUE);
+    }
+
+    /**
+     * Constructor for a service held to a memory budget
+     * @param threads the number of solver threads; ignored with virtual threads
+     * @param limit the most requests held at once, running or waiting
+     * @param virtual true to run each batch on a virtual thread where the
+     *        runtime has them, falling back to the thread pool otherwise
+     * @param engine the engine used for every solve
+     * @param budget the most estimated bytes the running requests may hold
+     * @param admission what to do with a request that would go over it
+     */
+
+    public FlowService(int threads, int limit, boolean virtual, Network.Engine engine, long budget, Admission admission) {
+        this(executor(threads, virtual), limit, engine, budget, admission);
+    }
+
+    /**
+     * Constructor for a service running its batches on a given executor,
+     * which it shuts down on close
+     * @param executor the executor
+     * @param limit the most requests held at once, running or waiting
+     * @param engine the engine used for every solve
+     * @param budget the most estimated bytes the running requests may hold
+     * @param admission what to do with a request that would go over it
+     */
+
+    FlowService(ExecutorService executor, int limit, Network.Engine engine, long budget, Admission admission) {
+        this.budget = budget;
+        this.admission = admission;
+        this.executor = executor;
+        this.engine = engine;
+        this.capacity = new Semaphore(limit);
+        this.pending = new IdentityHashMap<Graph, List<Request>>();
+        this.batches = new AtomicInteger();
+        this.workspaces = new ConcurrentLinkedQueue<SolverWorkspace>();
+    }
+
+    /**
+     * Submit a solve, waiting for room if the service is full. Under the
+     * QUEUE and COMPRESS policies this also waits for memory.
+     * @param g the graph
+     * @param source the name of the source
+     * @param sink the name of the sink
+     * @return the flow graph, once solved; or failed with a
+     *         RejectedExecutionException if it does not fit the budget or
+     *         the service is closed
+     */
+
+    public CompletableFuture<Graph> submit(Graph g, String source, String sink) {
+        CompletableFuture<Graph> result = new CompletableFuture<Graph>();
+        if (closed) {
+            result.completeExceptionally(new RejectedExecutionException("the service is closed"));
+            return result;
+        }
+        try {
+            capacity.acquire();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(ex);
+            return result;
+        }
+        Request request = new Request(source, sink, result);
+        try {
+            admit(g, request);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            capacity.release();
+            result.completeExceptionally(ex);
+            return result;
+        }
+        catch (RejectedExecutionException ex) {
+            capacity.release();
+            result.completeExceptionally(ex);
+            return result;
+        }
+        RejectedExecutionException refused = null;
+        synchronized (pending) {
+            List<Request> batch = pending.get(g);
+            if (batch == null) {
+                batch = new ArrayList<Request>();
+                pending.put(g, batch);
+                final Graph graph = g;
+                try {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            runBatch(graph);
+                        }
+                    });
+                }
+                catch (RejectedExecutionException ex) {
+                    // Closed since the check above: no batch will run
+                    pending.remove(g);
+                    refused = ex;
+                }
+            }
+            if (refused == null) batch.add(request);
+        }
+        if (refused != null) {
+            release(request);
+            capacity.release();
+            result.completeExceptionally(refused);
+        }
+        return result;
+    }
+
+    /**
+     * Reserve memory for a request, choosing its representation
+     * @param g the graph
+     * @param request the request
+     * @throws InterruptedException if interrupted while waiting
+     * @throws RejectedExecutionException if the request does not fit
+     */
+
+    private synchronized void admit(Graph g, Request request) throws InterruptedException {
+        // The batch's template network stays alive beside every solve
+        MemoryEstimate plain = new MemoryEstimate(g, engine, false);
+        MemoryEstimate lean = new MemoryEstimate(g, engine, true);
+        long plainBytes = plain.peak() + plain.network();
+        long leanBytes = lean.peak() + lean.network();
+        long least = (admission == Admission.COMPRESS) ? Math.min(plainBytes, leanBytes) : plainBytes;
+        if (least > budget) {
+            throw new RejectedExecutionException("needs about " + least + " bytes, more than the budget of " + budget);
+        }
+        while (true) {
+            if (plainBytes <= budget - reserved) {
+                request.bytes = plainBytes;
+                break;
+            }
+            if (admission == Admission.COMPRESS && leanBytes <= budget - reserved) {
+                request.bytes = leanBytes;
+                request.compressed = true;
+                break;
+            }
+            if (admission == Admission.REJECT) {
+                throw new RejectedExecutionException("needs about " + plainBytes + " bytes, " + (budget - reserved) + " of " + budget + " free");
+            }
+            wait();
+        }
+        reserved += request.bytes;
+    }
+
+    /**
+     * Give back the memory a request reserved
+     * @param request the request
+     */
+
+    private synchronized void release(Request request) {
+        reserved -= request.bytes;
+        notifyAll();
+    }
+
+    /**
+     * The estimated bytes held by the requests admitted and not yet finished
+     * @return the size in bytes
+     */
+
+    public synchronized long reserved() {
+        return reserved;
+    }
+
+    /**
+     * The number of batches run so far
+     * @return the number of batches
+     */
+
+    public int batches() {
+        return batches.get();
+    }
+
+    /**
+     * Stop taking requests and wait for those submitted to finish; later
+     * requests fail with a RejectedExecutionException
+     */
+
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solve every request waiting on a graph. An Error in one solve fails it
+     * and every request after it in the batch, and is thrown on once each of
+     * them has given back its permit and memory and the workspace is back in
+     * the pool
+     * @param g the graph
+     */
+
+    private void runBatch(Graph g) {
+        List<Request> batch;
+        synchronized (pending) {
+            batch = pending.remove(g);
+        }
+        batches.incrementAndGet();
+        SolverWorkspace workspace = workspaces.poll();
+        if (workspace == null) workspace = new SolverWorkspace();
+        Network template = null;
+        Error fatal = null;
+        for (Request request : batch) {
+            try {
+                if (fatal != null) {
+                    request.result.completeExceptionally(fatal);
+                    continue;
+                }
+                if (template == null) template = new Network(g, request.source, request.sink);
+                Network n = new Network(template, request.source, request.sink);
+                if (request.compressed) n.compressTopology();
+                request.result.complete(solve(n, workspace));
+            }
+            catch (RuntimeException ex) {
+                request.result.completeExceptionally(ex);
+            }
+            catch (Error err) {
+                fatal = err;
+                request.result.completeExceptionally(err);
+            }
+            finally {
+                release(request);
+                capacity.release();
+            }
+        }
+        workspaces.offer(workspace);
+        if (fatal != null) throw fatal;
+    }
+
+    /**
+     * Solve one request of a batch
+     * @param n the network, with the request's source and sink
+     * @param workspace the batch's workspace
+     * @return the flow graph
+     */
+
+    Graph solve(Network n, SolverWorkspace workspace) {
+        return n.maxFlow(engine, workspace);
+    }
+
+    /**
+     * The executor for the batches
+     * @param threads the number of threads of a pool
+     * @param virtual true for a virtual thread per task where the runtime
+     *        has them, and a pool otherwise
+     * @return the executor
+     */
+
+    private static ExecutorService executor(int threads, boolean virtual) {
+        ExecutorService executor = virtual ? virtualExecutor() : null;
+        return (executor == null) ? Executors.newFixedThreadPool(threads) : executor;
+    }
+
+    /**
+     * An executor starting a virtual thread per task, if the runtime has them
+     * @return the executor, or null
+     */
+
+    private static ExecutorService virtualExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * A source and sink to solve for, and where the answer goes
+     */
+
+    private static class Request
+    {
+        private String source, sink;
+        private CompletableFuture<Graph> result;
+        private long bytes;
+        private boolean compressed;
+
+        /**
+         * Constructor for objects of class Request
+         * @param source the name of the source
+         * @param sink the name of the sink
+         * @param result where the answer goes
+         */
+
+        Request(String source, String sink, CompletableFuture<Graph> result) {
+            this.source = source;
+            this.sink = sink;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks a flow and a cut against each other in one O(V+E) pass. Every edge
+ * must carry no more than its capacity, and a directed edge no less than
+ * nothing; every vertex but the source and sink must pass on all it takes
+ * in; and the cut must hold the source but not the sink. A feasible flow is
+ * never worth more than any cut, so if the flow's value equals the cut's
+ * capacity both are optimal.
+ *
+ * The edges and then the vertices form one range of work, split in halves
+ * across a fork-join pool. Each half adds up its own cut capacity and
+ * source outflow and keeps the first violation it finds, so the answer is
+ * the same however the work was split.
+ *
+ * @version 10/19/26
+ */
+
+class FlowVerifier
+{
+    /**
+     * The most edges and vertices a single task checks before splitting
+     */
+
+    private static final int GRAIN = 1 << 14;
+
+    /**
+     * The number of vertices and of edges
+     */
+
+    private int n, m;
+
+    /**
+     * The start and end vertex of each edge
+     */
+
+    private int[] tail, head;
+
+    /**
+     * The capacity and flow of each edge; a negative flow on an undirected
+     * edge runs from its end to its start
+     */
+
+    private long[] capacity, flow;
+
+    /**
+     * Whether each edge is directed
+     */
+
+    private boolean[] directed;
+
+    /**
+     * Whether each vertex is on the source side of the cut
+     */
+
+    private boolean[] side;
+
+    /**
+     * The source and sink
+     */
+
+    private int s, t;
+
+    /**
+     * Where the edges leaving and entering each vertex start in out and in;
+     * n + 1 entries each
+     */
+
+    private int[] outStart, inStart;
+
+    /**
+     * The edges leaving and entering each vertex
+     */
+
+    private int[] out, in;
+
+    /**
+     * Constructor for objects of class FlowVerifier
+     * @param n the number of vertices
+     * @param tail the start vertex of each edge
+     * @param head the end vertex of each edge
+     * @param capacity the capacity of each edge
+     * @param flow the flow on each edge
+     * @param directed whether each edge is directed
+     * @param side whether each vertex is on the source side of the cut
+     * @param s the source
+     * @param t the sink
+     */
+
+    FlowVerifier(int n, int[] tail, int[] head, long[] capacity, long[] flow, boolean[] directed, boolean[] side, int s, int t) {
+        this.n = n;
+        this.m = tail.length;
+        this.tail = tail;
+        this.head = head;
+        this.capacity = capacity;
+        this.flow = flow;
+        this.directed = directed;
+        this.side = side;
+        this.s = s;
+        this.t = t;
+        this.outStart = new int[n + 1];
+        this.inStart = new int[n + 1];
+        this.out = new int[m];
+        this.in = new int[m];
+        index(tail, outStart, out);
+        index(head, inStart, in);
+    }
+
+    /**
+     * Group the edges by one of their endpoints
+     * @param key the endpoint of each edge to group by
+     * @param start receives where each vertex's edges start
+     * @param edges receives the edges, grouped
+     */
+
+    private void index(int[] key, int[] start, int[] edges) {
+        for (int e = 0; e < m; e++) {
+            start[key[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] next = new int[n];
+        System.arraycopy(start, 0, next, 0, n);
+        for (int e = 0; e < m; e++) {
+            edges[next[key[e]]++] = e;
+        }
+    }
+
+    /**
+     * Check everything
+     * @param pool the pool to split the work across
+     * @param names the name of each vertex, for the report
+     * @return the certificate
+     */
+
+    FlowCertificate verify(ForkJoinPool pool, String[] names) {
+        Tally tally = pool.invoke(new Check(0, m + n));
+        String problem = null;
+        if (!side[s]) problem = "the cut does not hold the source " + names[s];
+        else if (side[t]) problem = "the cut holds the sink " + names[t];
+        else if (tally.first >= 0) problem = describe(tally.first, names);
+        return new FlowCertificate(tally.value, tally.cut, problem);
+    }
+
+    /**
+     * The net flow into a vertex
+     * @param v the vertex
+     * @return what comes in less what goes out
+     */
+
+    private long excess(int v) {
+        long total = 0;
+        for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+            total += flow[in[k]];
+        }
+        for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+            total -= flow[out[k]];
+        }
+        return total;
+    }
+
+    /**
+     * Does an edge keep within its capacity?
+     * @param e the edge
+     * @return true or false
+     */
+
+    private boolean bounded(int e) {
+        long low = directed[e] ? 0 : -capacity[e];
+        return flow[e] >= low && flow[e] <= capacity[e];
+    }
+
+    /**
+     * Describe what is wrong with an edge or vertex
+     * @param unit the edge, or m plus the vertex
+     * @param names the name of each vertex
+     * @return the description
+     */
+
+    private String describe(int unit, String[] names) {
+        if (unit < m) {
+            return "edge " + unit + " from " + names[tail[unit]] + " to " + names[head[unit]]
+                + " carries " + flow[unit] + " but has capacity " + capacity[unit];
+        }
+        int v = unit - m;
+        return "vertex " + names[v] + " takes in " + excess(v) + " more than it passes on";
+    }
+
+    /**
+     * The sums and first violation of one range of work
+     */
+
+    private static class Tally
+    {
+        private long value, cut;
+        private int first = -1;
+
+        /**
+         * Add another range that comes after this one
+         * @param other the later range
+         * @return this tally
+         */
+
+        Tally add(Tally other) {
+            value += other.value;
+            cut += other.cut;
+            if (first < 0) first = other.first;
+            return this;
+        }
+    }
+
+    /**
+     * A range of edges and vertices, split in half until it is small enough
+     * to check directly
+     */
+
+    private class Check extends RecursiveTask<Tally>
+    {
+        private static final long serialVersionUID = 1L;
+        private int lo, hi;
+
+        /**
+         * Constructor for objects of class Check
+         * @param lo the first unit: edges come first, then m plus each vertex
+         * @param hi one past the last
+         */
+
+        Check(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Check right = new Check(mid, hi);
+                right.fork();
+                Tally left = new Check(lo, mid).compute();
+                return left.add(right.join());
+            }
+            Tally tally = new Tally();
+            for (int unit = lo; unit < hi; unit++) {
+                boolean fine;
+                if (unit < m) {
+                    int u = tail[unit];
+                    int v = head[unit];
+                    if (side[u] && !side[v]) tally.cut += capacity[unit];
+                    else if (!directed[unit] && side[v] && !side[u]) tally.cut += capacity[unit];
+                    fine = bounded(unit);
+                } else {
+                    int v = unit - m;
+                    long excess = excess(v);
+                    if (v == s) tally.value = -excess;
+                    fine = v == s || v == t || excess == 0;
+                }
+                if (!fine && tally.first < 0) tally.first = unit;
+            }
+            return tally;
+        }
+    }
+}
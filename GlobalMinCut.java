@@ -0,0 +1,548 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A minimum cut of a whole graph, with no source or sink given: a split of
+ * the nodes into two non-empty sides that minimizes the total weight of
+ * the edges between them. Every edge is taken as undirected; an edge
+ * without a weight weighs 1, and edges naming a node not in the graph are
+ * ignored.
+ *
+ * Stoer-Wagner gives the exact answer in O(VE log V). Karger-Stein
+ * contracts random edges instead and is correct only with high
+ * probability, which rises with the number of trials; its recursive
+ * branches and trials run in parallel.
+ *
+ * @version 10/19/26
+ */
+
+public class GlobalMinCut
+{
+    /**
+     * Karger-Stein solves graphs this small exactly
+     */
+
+    private static final int BASE = 6;
+
+    /**
+     * Karger-Stein forks its branches on graphs with more vertices than this
+     */
+
+    private static final int GRAIN = 256;
+
+    /**
+     * The total weight of the edges crossing the cut
+     */
+
+    private long value;
+
+    /**
+     * The node labels on each side
+     */
+
+    private List<String> side, otherSide;
+
+    /**
+     * Constructor for objects of class GlobalMinCut
+     * @param value the weight crossing the cut
+     * @param side the node labels on one side
+     * @param otherSide the node labels on the other side
+     */
+
+    public GlobalMinCut(long value, List<String> side, List<String> otherSide) {
+        this.value = value;
+        this.side = side;
+        this.otherSide = otherSide;
+    }
+
+    /**
+     * Get the value
+     * @return the total weight of the edges crossing the cut
+     */
+
+    public long value() {
+        return value;
+    }
+
+    /**
+     * Get one side
+     * @return the labels of the nodes on one side, in graph order
+     */
+
+    public List<String> side() {
+        return side;
+    }
+
+    /**
+     * Get the other side
+     * @return the labels of the nodes on the other side, in graph order
+     */
+
+    public List<String> otherSide() {
+        return otherSide;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "GlobalMinCut " + value + " " + side + " | " + otherSide;
+    }
+
+    /**
+     * Find an exact global minimum cut with Stoer-Wagner
+     * @param g the graph, with at least two nodes
+     * @return the cut
+     */
+
+    public static GlobalMinCut stoerWagner(Graph g) {
+        Edges e = new Edges(g);
+        return e.answer(g, stoerWagner(e.n, e.u, e.v, e.w));
+    }
+
+    /**
+     * Find a global minimum cut with Karger-Stein, keeping the best of
+     * several independent trials. Each trial succeeds with probability
+     * about 1 / log V, so around log(V) squared trials make a miss unlikely.
+     * A trial costs O(V^2 log V) whatever the number of edges, so this pays
+     * off over Stoer-Wagner only on dense graphs.
+     * @param g the graph, with at least two nodes
+     * @param trials the number of trials
+     * @param seed the seed for the random choices, so runs can be repeated
+     * @return the smallest cut found
+     */
+
+    public static GlobalMinCut kargerStein(Graph g, int trials, long seed) {
+        final Edges e = new Edges(g);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Contraction> tasks = new ArrayList<Contraction>();
+        for (int i = 0; i < Math.max(1, trials); i++) {
+            tasks.add(new Contraction(e.n, e.u, e.v, e.w, random.split()));
+        }
+        for (Contraction task : tasks) {
+            ForkJoinPool.commonPool().execute(task);
+        }
+        Cut best = null;
+        for (Contraction task : tasks) {
+            Cut cut = task.join();
+            if (best == null || cut.value < best.value) best = cut;
+        }
+        return e.answer(g, best);
+    }
+
+    /**
+     * A cut of a numbered graph
+     */
+
+    private static class Cut
+    {
+        private long value;
+        private boolean[] side;
+
+        Cut(long value, boolean[] side) {
+            this.value = value;
+            this.side = side;
+        }
+    }
+
+    /**
+     * The edges of a graph as numbered endpoints and weights
+     */
+
+    private static class Edges
+    {
+        private int n;
+        private int[] u, v;
+        private long[] w;
+
+        /**
+         * Number the nodes and edges of a graph
+         * @param g the graph
+         */
+
+        Edges(Graph g) {
+            this.n = g.nodeCount();
+            if (n < 2) throw new IllegalArgumentException("a cut needs at least two nodes");
+            int edges = g.edgeCount();
+            u = new int[edges];
+            v = new int[edges];
+            w = new long[edges];
+            g.edgeEndpoints(u, v);
+            int m = 0;
+            for (int e = 0; e < edges; e++) {
+                int a = u[e];
+                int b = v[e];
+                if (a < 0 || b < 0 || a == b) continue;
+                Integer weight = g.edgeWeight(e);
+                u[m] = a;
+                v[m] = b;
+                w[m++] = (weight == null) ? 1 : weight;
+            }
+            u = Arrays.copyOf(u, m);
+            v = Arrays.copyOf(v, m);
+            w = Arrays.copyOf(w, m);
+        }
+
+        /**
+         * Name the sides of a cut
+         * @param g the graph
+         * @param cut the cut
+         * @return the answer
+         */
+
+        GlobalMinCut answer(Graph g, Cut cut) {
+            List<String> side = new ArrayList<String>();
+            List<String> otherSide = new ArrayList<String>();
+            for (int i = 0; i < n; i++) {
+                (cut.side[i] ? side : otherSide).add(g.nodeLabel(i));
+            }
+            return new GlobalMinCut(cut.value, side, otherSide);
+        }
+    }
+
+    /**
+     * Stoer-Wagner on a numbered graph. Each phase grows a set from one
+     * vertex, always adding the vertex most tightly connected to it, found
+     * with a heap whose stale entries are skipped; the last vertex added is
+     * cut off from the rest at the phase's cost, then merged into the
+     * vertex added before it. The adjacency lists of merged vertices are
+     * linked end to end, and endpoints are resolved through a union-find.
+     * @param n the number of vertices, at least two
+     * @param eu the first end of each edge
+     * @param ev the second end of each edge
+     * @param ew the weight of each edge
+     * @return the cut
+     */
+
+    private static Cut stoerWagner(int n, int[] eu, int[] ev, long[] ew) {
+        int m = eu.length;
+        int[] first = new int[n];
+        int[] last = new int[n];
+        int[] link = new int[2 * m];
+        int[] to = new int[2 * m];
+        long[] weight = new long[2 * m];
+        Arrays.fill(first, -1);
+        Arrays.fill(last, -1);
+        for (int e = 0; e < 2 * m; e++) {
+            int from = (e % 2 == 0) ? eu[e / 2] : ev[e / 2];
+            to[e] = (e % 2 == 0) ? ev[e / 2] : eu[e / 2];
+            weight[e] = ew[e / 2];
+            link[e] = -1;
+            if (first[from] < 0) first[from] = e;
+            else link[last[from]] = e;
+            last[from] = e;
+        }
+        int[] parent = new int[n];
+        int[] nextMember = new int[n];
+        int[] lastMember = new int[n];
+        int[] active = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            nextMember[i] = -1;
+            lastMember[i] = i;
+            active[i] = i;
+        }
+        int count = n;
+        long[] key = new long[n];
+        boolean[] added = new boolean[n];
+        long[] heapKey = new long[2 * m + n];
+        int[] heapVertex = new int[2 * m + n];
+        long best = Long.MAX_VALUE;
+        boolean[] bestSide = new boolean[n];
+
+        while (count > 1) {
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                key[active[i]] = 0;
+                added[active[i]] = false;
+                size = offer(heapKey, heapVertex, size, 0, active[i]);
+            }
+            int previous = -1;
+            int latest = -1;
+            while (size > 0) {
+                long k = heapKey[0];
+                int x = heapVertex[0];
+                size = poll(heapKey, heapVertex, size);
+                if (added[x] || k != key[x]) continue;
+                added[x] = true;
+                previous = latest;
+                latest = x;
+                for (int e = first[x]; e >= 0; e = link[e]) {
+                    int y = find(parent, to[e]);
+                    if (y != x && !added[y]) {
+                        key[y] += weight[e];
+                        size = offer(heapKey, heapVertex, size, key[y], y);
+                    }
+                }
+            }
+            if (key[latest] < best) {
+                best = key[latest];
+                Arrays.fill(bestSide, false);
+                for (int i = latest; i >= 0; i = nextMember[i]) {
+                    bestSide[i] = true;
+                }
+            }
+            // Merge the last vertex into the one added before it
+            parent[latest] = previous;
+            if (first[latest] >= 0) {
+                if (first[previous] < 0) first[previous] = first[latest];
+                else link[last[previous]] = first[latest];
+                last[previous] = last[latest];
+            }
+            nextMember[lastMember[previous]] = latest;
+            lastMember[previous] = lastMember[latest];
+            for (int i = 0; i < count; i++) {
+                if (active[i] == latest) {
+                    active[i] = active[--count];
+                    break;
+                }
+            }
+        }
+        return new Cut(best, bestSide);
+    }
+
+    /**
+     * Find the vertex a vertex was merged into, halving the path as it goes
+     * @param parent the merge forest
+     * @param x the vertex
+     * @return the representative
+     */
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Add an entry to a max-heap
+     * @return the new size
+     */
+
+    private static int offer(long[] heapKey, int[] heapVertex, int size, long k, int x) {
+        int i = size++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKey[up] >= k) break;
+            heapKey[i] = heapKey[up];
+            heapVertex[i] = heapVertex[up];
+            i = up;
+        }
+        heapKey[i] = k;
+        heapVertex[i] = x;
+        return size;
+    }
+
+    /**
+     * Remove the largest entry of a max-heap
+     * @return the new size
+     */
+
+    private static int poll(long[] heapKey, int[] heapVertex, int size) {
+        size--;
+        long k = heapKey[size];
+        int x = heapVertex[size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heapKey[child + 1] > heapKey[child]) child++;
+            if (heapKey[child] <= k) break;
+            heapKey[i] = heapKey[child];
+            heapVertex[i] = heapVertex[child];
+            i = child;
+        }
+        heapKey[i] = k;
+        heapVertex[i] = x;
+        return size;
+    }
+
+    /**
+     * One Karger-Stein recursion: contract random edges down to about
+     * n / sqrt(2) vertices twice, independently, solve both smaller graphs
+     * the same way and keep the better cut
+     */
+
+    private static class Contraction extends RecursiveTask<Cut>
+    {
+        private static final long serialVersionUID = 1L;
+        private int n;
+        private int[] eu, ev;
+        private long[] ew;
+        private SplittableRandom random;
+
+        /**
+         * Constructor for objects of class Contraction
+         * @param n the number of vertices
+         * @param eu the first end of each edge
+         * @param ev the second end of each edge
+         * @param ew the weight of each edge
+         * @param random the source of random choices
+         */
+
+        Contraction(int n, int[] eu, int[] ev, long[] ew, SplittableRandom random) {
+            this.n = n;
+            this.eu = eu;
+            this.ev = ev;
+            this.ew = ew;
+            this.random = random;
+        }
+
+        @Override
+        protected Cut compute() {
+            if (n <= BASE) return stoerWagner(n, eu, ev, ew);
+            int target = (int)Math.ceil(1 + n / Math.sqrt(2));
+            Branch a = new Branch(target, random.split());
+            Branch b = new Branch(target, random.split());
+            if (a.disconnected) return a.cut;
+            Cut left, right;
+            if (n > GRAIN) {
+                a.task.fork();
+                right = b.task.compute();
+                left = a.task.join();
+            } else {
+                left = a.task.compute();
+                right = b.task.compute();
+            }
+            return (left.value <= right.value) ? a.lift(left) : b.lift(right);
+        }
+
+        /**
+         * One contracted copy of the graph
+         */
+
+        private class Branch
+        {
+            private int[] component;
+            private Contraction task;
+            private boolean disconnected;
+            private Cut cut;
+
+            /**
+             * Contract edges in a weighted random order, each edge drawn
+             * with probability proportional to its weight, until target
+             * vertices remain. If the edges run out first, the graph is
+             * disconnected and any one of its pieces is a cut of weight 0.
+             * @param target the number of vertices to keep
+             * @param random the source of random choices
+             */
+
+            Branch(int target, SplittableRandom random) {
+                int m = eu.length;
+                // Exponential clocks: the edge whose clock rings first is
+                // drawn next. A positive float's bits order like the float,
+                // so each clock and its edge sort together as one long.
+                long[] order = new long[m];
+                for (int e = 0; e < m; e++) {
+                    float clock = (ew[e] > 0) ? (float)(-Math.log(1 - random.nextDouble()) / ew[e]) : Float.POSITIVE_INFINITY;
+                    order[e] = ((long)Float.floatToIntBits(clock) << 32) | e;
+                }
+                Arrays.sort(order);
+                int[] parent = new int[n];
+                for (int i = 0; i < n; i++) {
+                    parent[i] = i;
+                }
+                int count = n;
+                for (int i = 0; i < m && count > target; i++) {
+                    int e = (int)order[i];
+                    if (ew[e] <= 0) break;
+                    int x = find(parent, eu[e]);
+                    int y = find(parent, ev[e]);
+                    if (x != y) {
+                        parent[x] = y;
+                        count--;
+                    }
+                }
+                component = new int[n];
+                Arrays.fill(component, -1);
+                int k = 0;
+                for (int i = 0; i < n; i++) {
+                    int root = find(parent, i);
+                    if (component[root] < 0) component[root] = k++;
+                    component[i] = component[root];
+                }
+                if (count > target) {
+                    disconnected = true;
+                    boolean[] side = new boolean[n];
+                    for (int i = 0; i < n; i++) {
+                        side[i] = component[i] == component[0];
+                    }
+                    cut = new Cut(0, side);
+                    return;
+                }
+                task = merged(count, m);
+                task.random = random;
+            }
+
+            /**
+             * Build the contracted graph, dropping the edges inside a
+             * component and adding up the weights of parallel edges, so
+             * the edges never outnumber the pairs of vertices
+             * @param count the number of components
+             * @param m the number of edges
+             * @return the contracted graph, without its random source
+             */
+
+            private Contraction merged(int count, int m) {
+                int[] start = new int[count + 1];
+                for (int e = 0; e < m; e++) {
+                    int x = component[eu[e]];
+                    int y = component[ev[e]];
+                    if (x != y) start[Math.min(x, y) + 1]++;
+                }
+                for (int c = 0; c < count; c++) {
+                    start[c + 1] += start[c];
+                }
+                int[] bucket = new int[start[count]];
+                int[] next = Arrays.copyOf(start, count);
+                for (int e = 0; e < m; e++) {
+                    int x = component[eu[e]];
+                    int y = component[ev[e]];
+                    if (x != y) bucket[next[Math.min(x, y)]++] = e;
+                }
+                int[] u = new int[bucket.length];
+                int[] v = new int[bucket.length];
+                long[] w = new long[bucket.length];
+                int[] slot = new int[count];
+                Arrays.fill(slot, -1);
+                int kept = 0;
+                for (int x = 0; x < count; x++) {
+                    int first = kept;
+                    for (int i = start[x]; i < start[x + 1]; i++) {
+                        int e = bucket[i];
+                        int y = component[eu[e]] + component[ev[e]] - x;
+                        if (slot[y] < first) {
+                            slot[y] = kept;
+                            u[kept] = x;
+                            v[kept] = y;
+                            w[kept++] = 0;
+                        }
+                        w[slot[y]] += ew[e];
+                    }
+                }
+                return new Contraction(count, Arrays.copyOf(u, kept), Arrays.copyOf(v, kept), Arrays.copyOf(w, kept), null);
+            }
+
+            /**
+             * Carry a cut of the contracted graph back to this graph
+             * @param contracted the cut of the contracted graph
+             * @return the same cut over this graph's vertices
+             */
+
+            Cut lift(Cut contracted) {
+                boolean[] side = new boolean[n];
+                for (int i = 0; i < n; i++) {
+                    side[i] = contracted.side[component[i]];
+                }
+                return new Cut(contracted.value, side);
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.io.BufferedOutputStream;
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
@@ -13,10 +16,16 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamField;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 /**
  * Represents a graph comprised of collection of nodes,
  * a collection of edges, and an indicator as to
  * whether or not the graph is directed.
+ * Node labels are held once in a dictionary; nodes and
+ * edges refer to them by position, with costs, weights
+ * and flags kept in primitive arrays.
  * @author Dr. Jody Paul
  * @version 20130213a
  */
@@ -25,28 +34,58 @@ public class Graph implements Serializable {
      * Serialization version indicator used to determine if
      * a file is compatible with this class.
      */
-    private static final long serialVersionUID = 1038001L;
+    private static final long serialVersionUID = 1038002L;
     /** Default state save/restore file name. */
     public static String SERIAL_FILENAME = "graph.ser";
     /** Ensure serialization of necessary fields. */
     private static final ObjectStreamField[] serialPersistentFields
                  = { new ObjectStreamField("isDirected", Boolean.class),
-                     new ObjectStreamField("nodes", List.class),
-                     new ObjectStreamField("edges", List.class) };
+                     new ObjectStreamField("dictionary", String[].class),
+                     new ObjectStreamField("nodeLabels", int[].class),
+                     new ObjectStreamField("costs", int[].class),
+                     new ObjectStreamField("nodeFlags", byte[].class),
+                     new ObjectStreamField("starts", int[].class),
+                     new ObjectStreamField("ends", int[].class),
+                     new ObjectStreamField("weights", int[].class),
+                     new ObjectStreamField("edgeFlags", byte[].class),
+                     new ObjectStreamField("edgeLabels", String[].class) };
+
+    /** Node flag: the node has a cost. */
+    private static final byte HAS_COST = 1;
+    /** Edge flag: the edge is directed. */
+    private static final byte DIRECTED = 1;
+    /** Edge flag: the edge has a weight. */
+    private static final byte HAS_WEIGHT = 2;
+
+    /**
+     * The distinct node labels used by the nodes and edges
+     * of this graph, each held once.
+     * @serial
+     */
+    private String[] dictionary = new String[0];
 
     /**
-     * The list of nodes in this graph.
-     * Each node is represented by a Node object.
+     * The nodes in this graph: for each node, the position
+     * of its label in the dictionary, its cost, and its flags.
+     * A cost is only meaningful if the node has HAS_COST set.
      * @serial
      */
-    private List<Node> nodes = new ArrayList<Node>();
+    private int[] nodeLabels = new int[0];
+    private int[] costs = new int[0];
+    private byte[] nodeFlags = new byte[0];
 
     /**
-     * The list of edges in this graph.
-     * Each edge is represented by an Edge object.
+     * The edges in this graph: for each edge, the positions
+     * of its start and end node labels in the dictionary,
+     * its weight, its flags, and its label (which may be null).
+     * A weight is only meaningful if the edge has HAS_WEIGHT set.
      * @serial
      */
-    private List<Edge> edges = new ArrayList<Edge>();
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private int[] weights = new int[0];
+    private byte[] edgeFlags = new byte[0];
+    private String[] edgeLabels = new String[0];
 
     /**
      * Indicator of directedness of this graph;
@@ -55,6 +94,30 @@ public class Graph implements Serializable {
      */
     private Boolean isDirected = new Boolean(false);
 
+    /**
+     * Content fingerprint of this graph, computed on first use.
+     * Not serialized.
+     */
+    private transient String fingerprint = null;
+
+    /**
+     * Adjacency index of this graph, built on first use.
+     * Not serialized.
+     */
+    private transient volatile Adjacency adjacency = null;
+
+    /**
+     * Index of the node labels, built on first use.
+     * Not serialized.
+     */
+    private transient volatile Labels labels = null;
+
+    /**
+     * Whether the adjacency index is kept bit-packed.
+     * Not serialized.
+     */
+    private transient boolean compressedAdjacency = false;
+
     /**
      * Construct an undirected graph with no nodes or edges.
      */
@@ -66,9 +129,7 @@ public class Graph implements Serializable {
      * @param nodeLabels a list of String objects to be used as node labels
      */
     public Graph(List<String> nodeLabels) {
-        for (String label : nodeLabels) {
-            this.nodes.add(new Node(label, null));
-        }
+        encode(nodeLabels, null, new ArrayList<List<String>>(), true);
     }
 
     /**
@@ -80,10 +141,7 @@ public class Graph implements Serializable {
      *        end-node-label in that order.
      */
     public Graph(List<String> nodeLabels, List<List<String>> edgeList, Boolean simple) {
-        this(nodeLabels);
-        for (List<String> edge : edgeList) {
-            this.edges.add(new Edge(edge.get(0), edge.get(1), false, null, null));
-        }
+        encode(nodeLabels, null, edgeList, true);
     }
 
     /**
@@ -101,27 +159,266 @@ public class Graph implements Serializable {
                  List<Integer> nodeCosts,
                  Boolean directed,
                  List<List<String>> edgeList) {
-        for (int i = 0; i < nodeLabels.size(); i++) {
-            this.nodes.add(new Node(nodeLabels.get(i), nodeCosts.get(i)));
-        }
+        encode(nodeLabels, nodeCosts, edgeList, false);
         this.isDirected = directed;
-        for (List<String> edge : edgeList) {
-            this.edges.add(new Edge(edge.get(0),
-                                    edge.get(1),
-                                    Boolean.valueOf(edge.get(2)),
-                                    edge.get(3),
-                                    Integer.valueOf(edge.get(4))));
+    }
+
+    /**
+     * Constructor helper method: fill in the dictionary, nodes
+     * and edges from lists of strings.
+     * @param labels the node labels
+     * @param nodeCosts the node costs, or null if nodes have no cost
+     * @param edgeList the edges, as given to the constructors
+     * @param simple true if each edge gives only its two node labels
+     */
+    private void encode(List<String> labels, List<Integer> nodeCosts,
+                        List<List<String>> edgeList, boolean simple) {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<String> dict = new ArrayList<String>();
+        Map<String, String> pool = new HashMap<String, String>();
+        int n = labels.size();
+        this.nodeLabels = new int[n];
+        this.costs = new int[n];
+        this.nodeFlags = new byte[n];
+        for (int i = 0; i < n; i++) {
+            this.nodeLabels[i] = lookup(ids, dict, labels.get(i));
+            Integer cost = (nodeCosts == null) ? null : nodeCosts.get(i);
+            if (cost != null) { this.costs[i] = cost; this.nodeFlags[i] = HAS_COST; }
+        }
+        int m = edgeList.size();
+        this.starts = new int[m];
+        this.ends = new int[m];
+        this.weights = new int[m];
+        this.edgeFlags = new byte[m];
+        this.edgeLabels = new String[m];
+        for (int e = 0; e < m; e++) {
+            List<String> edge = edgeList.get(e);
+            this.starts[e] = lookup(ids, dict, edge.get(0));
+            this.ends[e] = lookup(ids, dict, edge.get(1));
+            if (simple) continue;
+            if (Boolean.valueOf(edge.get(2))) this.edgeFlags[e] |= DIRECTED;
+            String label = edge.get(3);
+            if (label != null) {
+                Integer id = ids.get(label);
+                String found = (id != null) ? dict.get(id) : pool.get(label);
+                if (found == null) pool.put(label, label);
+                else label = found;
+            }
+            this.edgeLabels[e] = label;
+            this.weights[e] = Integer.parseInt(edge.get(4));
+            this.edgeFlags[e] |= HAS_WEIGHT;
+        }
+        this.dictionary = dict.toArray(new String[dict.size()]);
+    }
+
+    /**
+     * Constructor helper method: the position of a label in the
+     * dictionary, adding it if not yet there.
+     * @param ids the positions of labels added so far
+     * @param dict the labels added so far
+     * @param label the label
+     * @return the position of the label
+     */
+    private static int lookup(Map<String, Integer> ids, List<String> dict, String label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            id = dict.size();
+            ids.put(label, id);
+            dict.add(label);
         }
+        return id;
     }
 
+    /**
+     * Builds a graph one node and one edge at a time, without
+     * materializing lists of strings first. Labels are interned
+     * so each distinct string is held once; node costs, edge
+     * endpoints and weights are kept in primitive arrays that
+     * grow as needed. Nodes are identified by the order in which
+     * they were added, starting at 0. A builder is used once.
+     */
+    public static class Builder {
+        private Boolean directed;
+        private Map<String, Integer> ids = new HashMap<String, Integer>();
+        private Map<String, String> pool = new HashMap<String, String>();
+        private String[] labels = new String[16];
+        private int[] costs = new int[16];
+        private int nodeCount = 0;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] weights = new int[16];
+        private byte[] flags = new byte[16];
+        private String[] edgeLabels = new String[16];
+        private int edgeCount = 0;
+        private boolean built = false;
+
+        /**
+         * Start building a graph.
+         * @param directed true if a directed graph; false otherwise
+         */
+        public Builder(boolean directed) { this.directed = Boolean.valueOf(directed); }
+
+        /**
+         * Start building a graph of about a known size, so the
+         * arrays need not grow on the way.
+         * @param directed true if a directed graph; false otherwise
+         * @param nodes the expected number of nodes
+         * @param edges the expected number of edges
+         */
+        public Builder(boolean directed, int nodes, int edges) {
+            this(directed);
+            this.ids = new HashMap<String, Integer>(2 * nodes);
+            this.labels = new String[Math.max(nodes, 1)];
+            this.costs = new int[this.labels.length];
+            this.starts = new int[Math.max(edges, 1)];
+            this.ends = new int[this.starts.length];
+            this.weights = new int[this.starts.length];
+            this.flags = new byte[this.starts.length];
+            this.edgeLabels = new String[this.starts.length];
+        }
+
+        /**
+         * Add a node with cost 0, or find it if already added.
+         * @param label the label of the node
+         * @return the id of the node
+         */
+        public int node(String label) { return node(label, 0); }
+
+        /**
+         * Add a node, or find it if already added; the cost of
+         * a node that was already added is left as it was.
+         * @param label the label of the node
+         * @param cost the cost of the node
+         * @return the id of the node
+         */
+        public int node(String label, int cost) {
+            if (built) throw new IllegalStateException("graph already built");
+            Integer id = ids.get(label);
+            if (id != null) return id;
+            if (nodeCount == labels.length) {
+                labels = Arrays.copyOf(labels, grow(nodeCount));
+                costs = Arrays.copyOf(costs, labels.length);
+            }
+            String interned = intern(label);
+            ids.put(interned, nodeCount);
+            labels[nodeCount] = interned;
+            costs[nodeCount] = cost;
+            return nodeCount++;
+        }
+
+        /**
+         * Add an edge between nodes given by label, adding
+         * either node with cost 0 if not yet added.
+         * @param start the label of the start node
+         * @param end the label of the end node
+         * @param isDirected true if a directed edge; false otherwise
+         * @param label the label of this edge (null if none)
+         * @param weight the weight of this edge
+         * @return the index of the edge
+         */
+        public int edge(String start, String end, boolean isDirected,
+                        String label, int weight) {
+            return edge(node(start), node(end), isDirected, label, weight);
+        }
+
+        /**
+         * Add an edge between nodes given by id.
+         * @param start the id of the start node
+         * @param end the id of the end node
+         * @param isDirected true if a directed edge; false otherwise
+         * @param label the label of this edge (null if none)
+         * @param weight the weight of this edge
+         * @return the index of the edge
+         */
+        public int edge(int start, int end, boolean isDirected,
+                        String label, int weight) {
+            if (built) throw new IllegalStateException("graph already built");
+            if (start < 0 || start >= nodeCount || end < 0 || end >= nodeCount) {
+                throw new IllegalArgumentException("no node " + (start < 0 || start >= nodeCount ? start : end));
+            }
+            if (edgeCount == starts.length) {
+                int size = grow(edgeCount);
+                starts = Arrays.copyOf(starts, size);
+                ends = Arrays.copyOf(ends, size);
+                weights = Arrays.copyOf(weights, size);
+                flags = Arrays.copyOf(flags, size);
+                edgeLabels = Arrays.copyOf(edgeLabels, size);
+            }
+            starts[edgeCount] = start;
+            ends[edgeCount] = end;
+            weights[edgeCount] = weight;
+            flags[edgeCount] = (byte)(HAS_WEIGHT | (isDirected ? DIRECTED : 0));
+            edgeLabels[edgeCount] = intern(label);
+            return edgeCount++;
+        }
+
+        /**
+         * Finish the graph. The builder cannot be used afterwards.
+         * @return the graph
+         */
+        public Graph build() {
+            if (built) throw new IllegalStateException("graph already built");
+            built = true;
+            Graph g = new Graph();
+            g.isDirected = this.directed;
+            // Every endpoint is a node, so node ids double as dictionary positions
+            g.dictionary = Arrays.copyOf(labels, nodeCount);
+            g.nodeLabels = new int[nodeCount];
+            g.nodeFlags = new byte[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                g.nodeLabels[i] = i;
+                g.nodeFlags[i] = HAS_COST;
+            }
+            g.costs = Arrays.copyOf(costs, nodeCount);
+            // Edge arrays sized exactly, as by the sizing constructor, are handed over
+            boolean exact = starts.length == edgeCount;
+            g.starts = exact ? starts : Arrays.copyOf(starts, edgeCount);
+            g.ends = exact ? ends : Arrays.copyOf(ends, edgeCount);
+            g.weights = exact ? weights : Arrays.copyOf(weights, edgeCount);
+            g.edgeFlags = exact ? flags : Arrays.copyOf(flags, edgeCount);
+            g.edgeLabels = exact ? edgeLabels : Arrays.copyOf(edgeLabels, edgeCount);
+            labels = null;
+            costs = null;
+            starts = null;
+            ends = null;
+            weights = null;
+            flags = null;
+            edgeLabels = null;
+            ids = null;
+            pool = null;
+            return g;
+        }
+
+        /**
+         * Builder helper method: the single stored copy of a string.
+         * @param x the string, or null
+         * @return the interned string, or null
+         */
+        private String intern(String x) {
+            if (x == null) return null;
+            String found = pool.get(x);
+            if (found == null) { pool.put(x, x); found = x; }
+            return found;
+        }
+
+        /**
+         * Builder helper method: the next size for a full array,
+         * half again as large.
+         * @param size the current size
+         * @return the new size
+         */
+        private static int grow(int size) { return size + (size >> 1) + 1; }
+    }
+
+
     /**
      * Retrieve nodes as list of labels.
      * @return list of labels of nodes in this graph
      */
     public List<String> getNodeNamesAsStrings() {
         List<String> labels = new ArrayList<String>();
-        for (Node n : this.nodes) {
-            labels.add(n.getLabel());
+        for (int i = 0; i < this.nodeLabels.length; i++) {
+            labels.add(nodeLabel(i));
         }
         return labels;
     }
@@ -134,10 +431,10 @@ public class Graph implements Serializable {
      */
     public List<List<String>> getNodesAsStrings() {
         List<List<String>> nodeStrings = new ArrayList<List<String>>();
-        for (Node n : this.nodes) {
+        for (int i = 0; i < this.nodeLabels.length; i++) {
             List<String> nodePair = new ArrayList<String>();
-            nodePair.add(n.getLabel());
-            nodePair.add(n.getCost().toString());
+            nodePair.add(nodeLabel(i));
+            nodePair.add("" + cost(i));
             nodeStrings.add(nodePair);
         }
         return nodeStrings;
@@ -158,18 +455,481 @@ public class Graph implements Serializable {
      */
     public List<List<String>> getEdgesAsStrings () {
         List<List<String>> edgeList = new ArrayList<List<String>>();
-        for (Edge e : this.edges) {
+        for (int e = 0; e < this.starts.length; e++) {
             List<String> oneEdge = new ArrayList<String>();
-            oneEdge.add(e.getStartNode());
-            oneEdge.add(e.getEndNode());
-            oneEdge.add(e.isDirected().toString());
-            oneEdge.add("" + e.getLabel());
-            oneEdge.add("" + e.getWeight());
+            oneEdge.add(this.dictionary[this.starts[e]]);
+            oneEdge.add(this.dictionary[this.ends[e]]);
+            oneEdge.add(directed(e).toString());
+            oneEdge.add("" + this.edgeLabels[e]);
+            oneEdge.add("" + weight(e));
             edgeList.add(oneEdge);
         }
         return edgeList;           
     }
 
+    /**
+     * Disclose the number of nodes in this graph.
+     * @return the number of nodes
+     */
+    public int nodeCount() { return this.nodeLabels.length; }
+
+    /**
+     * Disclose the number of edges in this graph.
+     * @return the number of edges
+     */
+    public int edgeCount() { return this.starts.length; }
+
+    /**
+     * Node helper method: the cost of a node.
+     * @param i the id of the node
+     * @return the cost, or null if the node has none
+     */
+    private Integer cost(int i) {
+        return ((this.nodeFlags[i] & HAS_COST) == 0) ? null : Integer.valueOf(this.costs[i]);
+    }
+
+    /**
+     * Edge helper method: the directedness of an edge.
+     * @param e the index of the edge
+     * @return true if a directed edge; false otherwise
+     */
+    private Boolean directed(int e) {
+        return Boolean.valueOf((this.edgeFlags[e] & DIRECTED) != 0);
+    }
+
+    /**
+     * Edge helper method: the weight of an edge.
+     * @param e the index of the edge
+     * @return the weight, or null if the edge has none
+     */
+    private Integer weight(int e) {
+        return ((this.edgeFlags[e] & HAS_WEIGHT) == 0) ? null : Integer.valueOf(this.weights[e]);
+    }
+
+    /**
+     * Compute a SHA-256 fingerprint of the content of this graph:
+     * its directedness and every node and edge attribute, in order.
+     * Graphs with equal content have equal fingerprints; unlike
+     * hashCode, different graphs colliding is not a practical concern.
+     * Computed in one pass over the nodes and edges on first use.
+     * @return the fingerprint as a hexadecimal string
+     */
+    public String fingerprint() {
+        if (this.fingerprint == null) {
+            MessageDigest md;
+            try { md = MessageDigest.getInstance("SHA-256"); }
+            catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 unavailable", ex);
+            }
+            digest(md, "" + this.isDirected);
+            digest(md, nodeCount());
+            for (int i = 0; i < nodeCount(); i++) {
+                digest(md, nodeLabel(i));
+                digest(md, cost(i));
+            }
+            digest(md, edgeCount());
+            for (int e = 0; e < edgeCount(); e++) {
+                digest(md, this.dictionary[this.starts[e]]);
+                digest(md, this.dictionary[this.ends[e]]);
+                digest(md, directed(e).toString());
+                digest(md, this.edgeLabels[e]);
+                digest(md, weight(e));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : md.digest()) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            this.fingerprint = hex.toString();
+        }
+        return this.fingerprint;
+    }
+
+    /**
+     * Fingerprint helper method: feed a possibly null string,
+     * length-prefixed so adjacent values cannot run together.
+     * @param md the digest
+     * @param x the string
+     */
+    private static void digest(MessageDigest md, String x) {
+        if (x == null) { md.update((byte)0); return; }
+        byte[] bytes = x.getBytes(StandardCharsets.UTF_8);
+        md.update((byte)1);
+        digest(md, bytes.length);
+        md.update(bytes);
+    }
+
+    /**
+     * Fingerprint helper method: feed a possibly null integer.
+     * @param md the digest
+     * @param x the integer
+     */
+    private static void digest(MessageDigest md, Integer x) {
+        if (x == null) { md.update((byte)0); return; }
+        int v = x;
+        md.update((byte)1);
+        md.update(new byte[] { (byte)(v >>> 24), (byte)(v >>> 16), (byte)(v >>> 8), (byte)v });
+    }
+
+    /**
+     * Look up a node by label. Nodes are numbered from 0 in the
+     * order given to the constructor; if labels repeat, the first
+     * node with the label is found.
+     * @param label the node label
+     * @return the id of the node, or -1 if there is none
+     */
+    public int nodeId(String label) { return labels().find(label); }
+
+    /**
+     * Retrieve the label of a node.
+     * @param id the id of the node
+     * @return the label of the node
+     */
+    public String nodeLabel(int id) { return this.dictionary[this.nodeLabels[id]]; }
+
+    /**
+     * Disclose the number of edges leaving a node. An undirected
+     * edge leaves both of its nodes. Edges naming a node label
+     * that is not in this graph are not counted.
+     * @param id the id of the node
+     * @return the out-degree of the node
+     */
+    public int outDegree(int id) {
+        Adjacency a = adjacency();
+        return a.outStart[id + 1] - a.outStart[id];
+    }
+
+    /**
+     * Disclose the number of edges entering a node. An undirected
+     * edge enters both of its nodes.
+     * @param id the id of the node
+     * @return the in-degree of the node
+     */
+    public int inDegree(int id) {
+        Adjacency a = adjacency();
+        return a.inStart[id + 1] - a.inStart[id];
+    }
+
+    /**
+     * Disclose the number of edges leaving a node.
+     * @param label the node label
+     * @return the out-degree of the node, or 0 if there is no such node
+     */
+    public int outDegree(String label) {
+        int id = nodeId(label);
+        return (id < 0) ? 0 : outDegree(id);
+    }
+
+    /**
+     * Disclose the number of edges entering a node.
+     * @param label the node label
+     * @return the in-degree of the node, or 0 if there is no such node
+     */
+    public int inDegree(String label) {
+        int id = nodeId(label);
+        return (id < 0) ? 0 : inDegree(id);
+    }
+
+    /**
+     * Retrieve the node at the far end of an edge leaving a node.
+     * Together with outDegree this walks the neighbours of a node
+     * without allocating.
+     * @param id the id of the node
+     * @param k which edge, from 0 to outDegree(id) - 1
+     * @return the id of the neighbour
+     */
+    public int outNeighbor(int id, int k) {
+        Adjacency a = adjacency();
+        return a.outNode(a.outStart[id] + k);
+    }
+
+    /**
+     * Retrieve the index of an edge leaving a node, as ordered
+     * in getEdgesAsStrings.
+     * @param id the id of the node
+     * @param k which edge, from 0 to outDegree(id) - 1
+     * @return the index of the edge
+     */
+    public int outEdge(int id, int k) {
+        Adjacency a = adjacency();
+        return a.outEdge(a.outStart[id] + k);
+    }
+
+    /**
+     * Retrieve the node at the near end of an edge entering a node.
+     * @param id the id of the node
+     * @param k which edge, from 0 to inDegree(id) - 1
+     * @return the id of the neighbour
+     */
+    public int inNeighbor(int id, int k) {
+        Adjacency a = adjacency();
+        return a.inNode(a.inStart[id] + k);
+    }
+
+    /**
+     * Retrieve the index of an edge entering a node, as ordered
+     * in getEdgesAsStrings.
+     * @param id the id of the node
+     * @param k which edge, from 0 to inDegree(id) - 1
+     * @return the index of the edge
+     */
+    public int inEdge(int id, int k) {
+        Adjacency a = adjacency();
+        return a.inEdge(a.inStart[id] + k);
+    }
+
+    /**
+     * Retrieve the start and end nodes of every edge at once,
+     * without building the adjacency index.
+     * @param start receives the id of each edge's start node, or
+     *        -1 if its label is not a node; at least edgeCount() long
+     * @param end receives the id of each edge's end node, likewise
+     */
+    public void edgeEndpoints(int[] start, int[] end) {
+        int[] nodeOf = labels().nodeOf;
+        for (int e = 0; e < this.starts.length; e++) {
+            start[e] = nodeOf[this.starts[e]];
+            end[e] = nodeOf[this.ends[e]];
+        }
+    }
+
+    /**
+     * Retrieve the start node of an edge.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return the id of the node, or -1 if the label is not a node
+     */
+    public int edgeStart(int e) { return labels().nodeOf[this.starts[e]]; }
+
+    /**
+     * Retrieve the end node of an edge.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return the id of the node, or -1 if the label is not a node
+     */
+    public int edgeEnd(int e) { return labels().nodeOf[this.ends[e]]; }
+
+    /**
+     * Disclose whether an edge is directed.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return true if directed; false otherwise
+     */
+    public boolean isEdgeDirected(int e) { return (this.edgeFlags[e] & DIRECTED) != 0; }
+
+    /**
+     * Retrieve the weight of an edge.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return the weight, or null if the edge has none
+     */
+    public Integer edgeWeight(int e) { return weight(e); }
+
+    /**
+     * Disclose whether an edge has a weight.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return true if it has one; false otherwise
+     */
+    public boolean isEdgeWeighted(int e) { return (this.edgeFlags[e] & HAS_WEIGHT) != 0; }
+
+    /**
+     * Retrieve the weight of an edge without boxing it, for loops
+     * over every edge.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return the weight, or 0 if the edge has none
+     */
+    public int edgeWeightValue(int e) { return isEdgeWeighted(e) ? this.weights[e] : 0; }
+
+    /**
+     * Retrieve the label of an edge.
+     * @param e the index of the edge, as in getEdgesAsStrings
+     * @return the label, or null if the edge has none
+     */
+    public String edgeLabel(int e) { return this.edgeLabels[e]; }
+
+    /**
+     * Keep the adjacency index bit-packed from now on, trading
+     * some decoding on each neighbour read for much less memory
+     * on large sparse graphs. Degree queries are unaffected.
+     */
+    public synchronized void compressAdjacency() {
+        this.compressedAdjacency = true;
+        this.adjacency = null;
+    }
+
+    /**
+     * Adjacency helper method: the index, built on first use.
+     * @return the adjacency index
+     */
+    private Adjacency adjacency() {
+        Adjacency a = this.adjacency;
+        if (a == null) {
+            synchronized (this) {
+                if (this.adjacency == null) {
+                    Adjacency built = new Adjacency();
+                    if (this.compressedAdjacency) built.compact();
+                    this.adjacency = built;
+                }
+                a = this.adjacency;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Labels helper method: the index, built on first use.
+     * @return the label index
+     */
+    private Labels labels() {
+        Labels l = this.labels;
+        if (l == null) {
+            synchronized (this) {
+                if (this.labels == null) this.labels = new Labels();
+                l = this.labels;
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Index of the node labels: nodeOf holds the first node with
+     * each dictionary label, or -1, and slots is an open-addressed
+     * hash table of node ids, one per distinct label, probed
+     * linearly. Both are plain int arrays, so the index costs a
+     * few words per node rather than a map entry and a boxed id.
+     */
+    private class Labels {
+        private int[] nodeOf;
+        private int[] slots;
+
+        /**
+         * Build the index in one pass over the nodes.
+         */
+        Labels() {
+            int n = nodeLabels.length;
+            nodeOf = new int[dictionary.length];
+            Arrays.fill(nodeOf, -1);
+            slots = new int[Integer.highestOneBit(Math.max(1, 2 * n - 1)) << 1];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < n; i++) {
+                if (nodeOf[nodeLabels[i]] >= 0) continue;
+                nodeOf[nodeLabels[i]] = i;
+                int k = slot(dictionary[nodeLabels[i]]);
+                while (slots[k] >= 0) k = (k + 1) & (slots.length - 1);
+                slots[k] = i;
+            }
+        }
+
+        /**
+         * Find the first node with a label.
+         * @param label the node label
+         * @return the id of the node, or -1 if there is none
+         */
+        int find(String label) {
+            for (int k = slot(label); slots[k] >= 0; k = (k + 1) & (slots.length - 1)) {
+                if (closeEnough(dictionary[nodeLabels[slots[k]]], label)) return slots[k];
+            }
+            return -1;
+        }
+
+        /**
+         * Labels helper method: the slot a label's probe starts at.
+         */
+        private int slot(String label) {
+            int h = (label == null) ? 0 : label.hashCode();
+            return (h ^ (h >>> 16)) & (slots.length - 1);
+        }
+    }
+
+    /**
+     * Out- and in-adjacency of the nodes in compressed sparse row
+     * form: the edges leaving node v are entries outStart[v] up to
+     * outStart[v + 1] of outNode (the far node) and outEdge (the
+     * edge index), and likewise for entering edges. Undirected
+     * edges are entered both ways, except loops, which are
+     * entered once. Once compacted, the node and edge columns
+     * are read from bit-packed copies.
+     */
+    private class Adjacency {
+        private int[] outStart, outNode, outEdge;
+        private int[] inStart, inNode, inEdge;
+        private PackedInts packedOutNode, packedOutEdge, packedInNode, packedInEdge;
+
+        /**
+         * Build the index in two passes over the edges:
+         * count the degrees, then place each edge.
+         */
+        Adjacency() {
+            int n = nodeLabels.length;
+            int[] nodeOf = labels().nodeOf;
+            int m = starts.length;
+            outStart = new int[n + 1];
+            inStart = new int[n + 1];
+            int arcs = 0;
+            for (int e = 0; e < m; e++) {
+                int u = nodeOf[starts[e]];
+                int v = nodeOf[ends[e]];
+                if (u < 0 || v < 0) continue;
+                outStart[u + 1]++;
+                inStart[v + 1]++;
+                arcs++;
+                if (both(e, u, v)) {
+                    outStart[v + 1]++;
+                    inStart[u + 1]++;
+                    arcs++;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                outStart[i + 1] += outStart[i];
+                inStart[i + 1] += inStart[i];
+            }
+            outNode = new int[arcs];
+            outEdge = new int[arcs];
+            inNode = new int[arcs];
+            inEdge = new int[arcs];
+            int[] outNext = Arrays.copyOf(outStart, n);
+            int[] inNext = Arrays.copyOf(inStart, n);
+            for (int e = 0; e < m; e++) {
+                int u = nodeOf[starts[e]];
+                int v = nodeOf[ends[e]];
+                if (u < 0 || v < 0) continue;
+                place(u, v, e, outNext, inNext);
+                if (both(e, u, v)) place(v, u, e, outNext, inNext);
+            }
+        }
+
+        /**
+         * Replace the node and edge columns with bit-packed copies.
+         */
+        void compact() {
+            packedOutNode = new PackedInts(outNode);
+            packedOutEdge = new PackedInts(outEdge);
+            packedInNode = new PackedInts(inNode);
+            packedInEdge = new PackedInts(inEdge);
+            outNode = outEdge = inNode = inEdge = null;
+        }
+
+        int outNode(int k) { return (outNode != null) ? outNode[k] : packedOutNode.get(k); }
+
+        int outEdge(int k) { return (outEdge != null) ? outEdge[k] : packedOutEdge.get(k); }
+
+        int inNode(int k) { return (inNode != null) ? inNode[k] : packedInNode.get(k); }
+
+        int inEdge(int k) { return (inEdge != null) ? inEdge[k] : packedInEdge.get(k); }
+
+        /**
+         * Adjacency helper method: is an edge entered both ways?
+         */
+        private boolean both(int e, int u, int v) {
+            return (edgeFlags[e] & DIRECTED) == 0 && u != v;
+        }
+
+        /**
+         * Adjacency helper method: enter one arc from u to v.
+         */
+        private void place(int u, int v, int e, int[] outNext, int[] inNext) {
+            outNode[outNext[u]] = v;
+            outEdge[outNext[u]++] = e;
+            inNode[inNext[v]] = u;
+            inEdge[inNext[v]++] = e;
+        }
+    }
+
     /**
      * Disclose if graph is directed or undirected.
      * @return true if graph is directed; false otherwise
@@ -182,31 +942,81 @@ public class Graph implements Serializable {
      */
     @Override
     public String toString() {
+        StringBuilder edgeString = new StringBuilder("[");
+        for (int e = 0; e < edgeCount(); e++) {
+            if (e > 0) edgeString.append(", ");
+            edgeString.append("<" + this.dictionary[this.starts[e]] + "," +
+                              this.dictionary[this.ends[e]] + "," +
+                              directed(e) + "," + this.edgeLabels[e] + "," +
+                              weight(e) + ">");
+        }
+        edgeString.append("]");
         return "GRAPH: " + 
         (isDirected ? "Directed" : "Undirected") +
         "\n " +
-        "Nodes(" + nodes + ")\n " +
-        "Edges(" + edges + ")";
+        "Nodes(" + getNodeNamesAsStrings() + ")\n " +
+        "Edges(" + edgeString + ")";
     }
 
     @Override public boolean equals(Object o) {
         if ( this == o ) return true;
         if ( !(o instanceof Graph) ) return false;
         Graph that = (Graph)o;
-        return
-            (this.nodes.equals(that.nodes)) &&
-            (this.edges.equals(that.edges)) &&
-            (this.isDirected.equals(that.isDirected));
+        if (this.nodeCount() != that.nodeCount() ||
+            this.edgeCount() != that.edgeCount() ||
+            !this.isDirected.equals(that.isDirected)) return false;
+        for (int i = 0; i < nodeCount(); i++) {
+            if (!closeEnough(this.nodeLabel(i), that.nodeLabel(i)) ||
+                !closeEnough(this.cost(i), that.cost(i))) return false;
+        }
+        for (int e = 0; e < edgeCount(); e++) {
+            if (this.edgeFlags[e] != that.edgeFlags[e] ||
+                !closeEnough(this.dictionary[this.starts[e]], that.dictionary[that.starts[e]]) ||
+                !closeEnough(this.dictionary[this.ends[e]], that.dictionary[that.ends[e]]) ||
+                !closeEnough(this.edgeLabels[e], that.edgeLabels[e]) ||
+                !closeEnough(this.weight(e), that.weight(e))) return false;
+        }
+        return true;
     }
 
     @Override public int hashCode() {
-        return
-        17 + 
-        ((this.nodes == null) ? 0 : this.nodes.hashCode()) +
-        ((this.edges  == null) ? 0 : this.edges.hashCode()) +
-        ((this.isDirected == null) ? 0 : this.isDirected.hashCode());
+        int hash = 17 + ((this.isDirected == null) ? 0 : this.isDirected.hashCode());
+        for (int i = 0; i < nodeCount(); i++) {
+            hash = 29 * hash + hashOf(nodeLabel(i)) + hashOf(cost(i));
+        }
+        for (int e = 0; e < edgeCount(); e++) {
+            hash = 37 * hash +
+                   hashOf(this.dictionary[this.starts[e]]) +
+                   hashOf(this.dictionary[this.ends[e]]) +
+                   this.edgeFlags[e] +
+                   hashOf(this.edgeLabels[e]) +
+                   hashOf(weight(e));
+        }
+        return hash;
+    }
+
+    /**
+     * Equals predicate helper method.
+     * @param x first object for comparison
+     * @param y second object for comparison
+     * @return true if both objects are null or
+     *         objects' native equals method returns true;
+     *         false otherwise
+     */
+    private static boolean closeEnough(Object x, Object y) {
+        if (x == y) return true;
+        if (x == null || y == null) return false;
+        return x.equals(y);
     }
 
+    /**
+     * Hash code helper method.
+     * @param x an object, or null
+     * @return the hash code of the object, or 0 if null
+     */
+    private static int hashOf(Object x) { return (x == null) ? 0 : x.hashCode(); }
+
+
     /**
      * Save the state of this graph.
      * @param graphFileName the name of the file into which to save,
@@ -284,155 +1094,19 @@ public class Graph implements Serializable {
         if (restored == null) {
             System.err.println("Unsuccessful deserialization: restored == null");
         } else {
-            this.nodes = restored.nodes;
-            this.edges = restored.edges;
+            this.dictionary = restored.dictionary;
+            this.nodeLabels = restored.nodeLabels;
+            this.costs = restored.costs;
+            this.nodeFlags = restored.nodeFlags;
+            this.starts = restored.starts;
+            this.ends = restored.ends;
+            this.weights = restored.weights;
+            this.edgeFlags = restored.edgeFlags;
+            this.edgeLabels = restored.edgeLabels;
             this.isDirected = restored.isDirected;
+            this.fingerprint = null;
+            this.adjacency = null;
+            this.labels = null;
         }
     }
-
-    /**
-     * Node representation is comprised of a
-     * String label and an Integer cost.
-     * If cost is null, this node is not part of
-     * a graph whose nodes have a cost attribute.
-     */
-    private class Node implements Serializable  {
-        private String label;
-        private Integer cost;
-        /**
-         * 
-         * Construct a node with attributes as
-         * specified by the parameters.
-         * @param nodeLabel the label associated with this node
-         * @param nodeCost the cost or weight associated with this node
-         */
-        Node(String nodeLabel, Integer nodeCost) {
-            this.label = nodeLabel;
-            this.cost = nodeCost;
-        }
-
-        String getLabel() { return this.label; }
-
-        Integer getCost() { return this.cost; }
-
-        @Override public String toString() { return this.label; }
-
-        /**
-         * Equals predicate helper method.
-         * @param x first object for comparison
-         * @param y second object for comparison
-         * @return true if both objects are null or
-         *         objects' native equals method returns true;
-         *         false otherwise
-         */
-        private boolean closeEnough(Object x, Object y) {
-            if (x == y) return true;
-            if (x == null || y == null) return false;
-            return x.equals(y);
-        }
-
-        @Override public boolean equals(Object o) {
-            if ( this == o ) return true;
-            if ( !(o instanceof Node) ) return false;
-            Node that = (Node)o;
-            return
-            closeEnough(this.label, that.label) &&
-            closeEnough(this.cost, that.cost);
-        }
-
-        @Override public int hashCode() {
-            return
-            29 + 
-            ((this.label == null) ? 0 : this.label.hashCode()) +
-            ((this.cost  == null) ? 0 : this.cost.hashCode());
-        }
-    }
-
-    /**
-     * Edge representation is comprised of two String
-     * node labels, a Boolean indicator of directedness,
-     * an optional Integer weight, and an optional
-     * String edge label.
-     * Nodes are referred to as start and end even
-     * if that distinction is not meaningful (as for
-     * undirected edges).
-     * If weight is null, this edge is not part of
-     * a graph whose edges have a weight attribute.
-     */
-    private class Edge implements Serializable  {
-        private String start;
-        private String end;
-        private Boolean directed;
-        private String label;
-        private Integer weight;
-
-        /**
-         * Construct an edge with attributes as
-         * specified by the parameters.
-         * @param startNode the label of the start node
-         * @param endNode the label of the end node
-         * @param isDirected true if a directed edge; false otherwise
-         * @param edgeLabel the label of this edge (null if none)
-         * @param edgeWeight the integer weight of this edge (null if none)
-         */
-        Edge(String startNode, String endNode, Boolean isDirected,
-             String edgeLabel, Integer edgeWeight) {
-            this.start = startNode;
-            this.end = endNode;
-            this.directed = isDirected;
-            this.label = edgeLabel;
-            this.weight = edgeWeight;
-        }
-
-        String getStartNode() { return this.start; }
-
-        String getEndNode() { return this.end; }
-
-        Boolean isDirected() { return this.directed; }
-
-        String getLabel() { return this.label; }
-
-        Integer getWeight() { return this.weight; }
-
-        @Override public String toString() {
-            return "<" + this.start + "," + this.end + "," + 
-                   this.directed + "," + this.label + "," + this.weight + ">";
-        }
-
-        /**
-         * Equals predicate helper method.
-         * @param x first object for comparison
-         * @param y second object for comparison
-         * @return true if both objects are null or
-         *         objects' native equals method returns true;
-         *         false otherwise
-         */
-        boolean closeEnough(Object x, Object y) {
-            if (x == y) return true;
-            if (x == null || y == null) return false;
-            return x.equals(y);
-        }
-
-        @Override public boolean equals(Object o) {
-            if ( this == o ) return true;
-            if ( !(o instanceof Edge) ) return false;
-            Edge that = (Edge)o;
-            return
-            closeEnough(this.start, that.start) &&
-            closeEnough(this.end, that.end) &&
-            closeEnough(this.directed, that.directed) &&
-            closeEnough(this.label, that.label) &&
-            closeEnough(this.weight, that.weight);
-        }
-
-        @Override public int hashCode() {
-            return
-            37 + 
-            ((this.start    == null) ? 0 : this.start.hashCode()) +
-            ((this.end      == null) ? 0 : this.end.hashCode()) +
-            ((this.directed == null) ? 0 : this.directed.hashCode()) +
-            ((this.label    == null) ? 0 : this.label.hashCode()) +
-            ((this.weight   == null) ? 0 : this.weight.hashCode());
-        }
-    }
-}
\ No newline at end of file
+}
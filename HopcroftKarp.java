@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+/**
+ * Maximum bipartite matching by Hopcroft-Karp. Each phase finds the length
+ * of the shortest augmenting paths with a breadth-first search from every
+ * unmatched left vertex, then augments along a maximal set of disjoint paths
+ * of that length with depth-first searches, so there are O(sqrt(V)) phases
+ * of O(E) work each. The depth-first searches keep their own stack, so long
+ * alternating paths cannot overflow the thread's stack.
+ *
+ * @version 10/19/26
+ */
+
+class HopcroftKarp
+{
+    /**
+     * The distance of a left vertex no shortest augmenting path passes through
+     */
+
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    /**
+     * The number of left and right vertices
+     */
+
+    private int left, right;
+
+    /**
+     * Where the arcs of each left vertex start in adj; left + 1 entries
+     */
+
+    private int[] start;
+
+    /**
+     * The right vertex each arc leads to
+     */
+
+    private int[] adj;
+
+    /**
+     * The arc matching each left vertex, or -1
+     */
+
+    private int[] matchLeft;
+
+    /**
+     * The left vertex matched to each right vertex, or -1
+     */
+
+    private int[] matchRight;
+
+    /**
+     * The phase distance of each left vertex
+     */
+
+    private int[] dist;
+
+    /**
+     * The next arc each left vertex tries in the current phase
+     */
+
+    private int[] next;
+
+    /**
+     * The length, in matched arcs, of the shortest augmenting paths this phase
+     */
+
+    private int limit;
+
+    /**
+     * Constructor for objects of class HopcroftKarp
+     * @param left the number of left vertices
+     * @param right the number of right vertices
+     * @param start where the arcs of each left vertex start in adj; left + 1 entries
+     * @param adj the right vertex each arc leads to
+     */
+
+    HopcroftKarp(int left, int right, int[] start, int[] adj) {
+        this.left = left;
+        this.right = right;
+        this.start = start;
+        this.adj = adj;
+        this.matchLeft = new int[left];
+        this.matchRight = new int[right];
+        this.dist = new int[left];
+        this.next = new int[left];
+        Arrays.fill(matchLeft, -1);
+        Arrays.fill(matchRight, -1);
+    }
+
+    /**
+     * Find a maximum matching
+     * @return the number of matched pairs
+     */
+
+    int solve() {
+        int size = 0;
+        int[] queue = new int[left];
+        int[] stack = new int[left];
+        while (layer(queue)) {
+            System.arraycopy(start, 0, next, 0, left);
+            for (int u = 0; u < left; u++) {
+                if (matchLeft[u] < 0 && augment(u, stack)) size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The arc matching a left vertex
+     * @param u the left vertex
+     * @return the arc, as a position in adj, or -1 if u is unmatched
+     */
+
+    int matched(int u) {
+        return matchLeft[u];
+    }
+
+    /**
+     * Set the phase distances: 0 for unmatched left vertices, and one more
+     * for each matched arc crossed, up to the first level that reaches an
+     * unmatched right vertex
+     * @param queue room for every left vertex
+     * @return true if any augmenting path exists
+     */
+
+    private boolean layer(int[] queue) {
+        int head = 0;
+        int tail = 0;
+        for (int u = 0; u < left; u++) {
+            if (matchLeft[u] < 0) {
+                dist[u] = 0;
+                queue[tail++] = u;
+            } else {
+                dist[u] = INFINITE;
+            }
+        }
+        int limit = INFINITE;
+        while (head < tail) {
+            int u = queue[head++];
+            if (dist[u] >= limit) break;
+            for (int k = start[u]; k < start[u + 1]; k++) {
+                int w = matchRight[adj[k]];
+                if (w < 0) {
+                    limit = dist[u];
+                } else if (dist[w] == INFINITE) {
+                    dist[w] = dist[u] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        // Only paths ending at the limit are shortest
+        for (int u = 0; u < left; u++) {
+            if (dist[u] > limit) dist[u] = INFINITE;
+        }
+        this.limit = limit;
+        return limit != INFINITE;
+    }
+
+    /**
+     * Search for a shortest augmenting path from an unmatched left vertex
+     * and flip it. Vertices found to lead nowhere are dropped for the rest
+     * of the phase.
+     * @param root the unmatched left vertex
+     * @param stack room for every left vertex
+     * @return true if a path was found
+     */
+
+    private boolean augment(int root, int[] stack) {
+        int depth = 0;
+        stack[depth++] = root;
+        while (depth > 0) {
+            int u = stack[depth - 1];
+            if (next[u] == start[u + 1]) {
+                dist[u] = INFINITE;
+                depth--;
+                continue;
+            }
+            int k = next[u]++;
+            int w = matchRight[adj[k]];
+            if (w < 0 && dist[u] == limit) {
+                // Each vertex on the stack takes the arc it last tried
+                for (int i = depth - 1; i >= 0; i--) {
+                    int x = stack[i];
+                    int a = next[x] - 1;
+                    matchLeft[x] = a;
+                    matchRight[adj[a]] = x;
+                }
+                return true;
+            }
+            if (w >= 0 && dist[w] == dist[u] + 1) stack[depth++] = w;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * An estimate of the heap a maximum flow solve needs, made from the size of
+ * the graph before anything is allocated. A solve holds the network's
+ * vertex and edge objects throughout, adds a residual twin for every edge,
+ * and then needs room for either the engine's working arrays or the flow
+ * graph it returns, whichever is larger; the peak is the sum.
+ *
+ * The figures assume a 64-bit JVM with compressed references, short labels
+ * and the input vertex ordering, and were checked against the smallest heap
+ * each engine could finish in. Compressing the topology packs each column
+ * of it as it is built, through one plain array of arcs, so it lowers both
+ * the cost of building the array form and what the engine holds while it
+ * runs.
+ *
+ * @version 10/19/26
+ */
+
+public class MemoryEstimate
+{
+    /**
+     * Estimated bytes per vertex of the network (its edge list, boxed cost
+     * and place in the lists and the index by name included), per edge or
+     * residual twin (with its label string and places in the edge lists),
+     * and per entry of a HashMap keyed by vertex with a boxed Integer value
+     */
+
+    private static final long VERTEX_BYTES = 160, EDGE_BYTES = 120, ENTRY_BYTES = 56;
+
+    /**
+     * Estimated bytes per arc of the flow graph while it is built
+     */
+
+    private static final long FLOW_ARC_BYTES = 40;
+
+    /**
+     * Estimated bytes per vertex of the graph's own index of its labels,
+     * built once by the first lookup: the first node with each label, and
+     * a hash table of node ids between half and a quarter full
+     */
+
+    private static final long LABEL_BYTES = 20;
+
+    /**
+     * The number of vertices and of edges
+     */
+
+    private long nodes, edges;
+
+    /**
+     * The engine
+     */
+
+    private Network.Engine engine;
+
+    /**
+     * Whether the topology is compressed
+     */
+
+    private boolean compressed;
+
+    /**
+     * Constructor for objects of class MemoryEstimate
+     * @param nodes the number of vertices
+     * @param edges the number of edges
+     * @param engine the engine
+     * @param compressed whether the topology is compressed, as by Network.compressTopology
+     */
+
+    public MemoryEstimate(long nodes, long edges, Network.Engine engine, boolean compressed) {
+        if (nodes < 0 || edges < 0) throw new IllegalArgumentException("negative size");
+        this.nodes = nodes;
+        this.edges = edges;
+        this.engine = engine;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Constructor for an estimate of solving a graph
+     * @param g the graph
+     * @param engine the engine
+     * @param compressed whether the topology is compressed, as by Network.compressTopology
+     */
+
+    public MemoryEstimate(Graph g, Network.Engine engine, boolean compressed) {
+        this(g.nodeCount(), g.edgeCount(), engine, compressed);
+    }
+
+    /**
+     * Get the engine
+     * @return the engine
+     */
+
+    public Network.Engine engine() {
+        return engine;
+    }
+
+    /**
+     * Is the topology compressed?
+     * @return true or false
+     */
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * The network as the constructor leaves it, with the graph's label index
+     * @return the size in bytes
+     */
+
+    public long network() {
+        return (VERTEX_BYTES + LABEL_BYTES) * nodes + EDGE_BYTES * edges;
+    }
+
+    /**
+     * The residual twins added when the solve starts
+     * @return the size in bytes
+     */
+
+    public long residuals() {
+        return EDGE_BYTES * edges;
+    }
+
+    /**
+     * The engine's working set at its largest
+     * @return the size in bytes
+     */
+
+    public long solver() {
+        long n = nodes;
+        long arcs = 2 * edges;
+        if (engine == Network.Engine.CLASSIC) {
+            // The search queue
+            return 24 * n;
+        }
+        if (engine == Network.Engine.MATCHING) {
+            // The two sides by vertex, then the matching's adjacency
+            return ENTRY_BYTES * n + 16 * n + 8 * arcs;
+        }
+        // Solving: the topology, plain or packed, the residuals and flows,
+        // and the breadth-first search's arrays
+        long topology = compressed ? arcs * (2 * bits(n) + 3 * bits(arcs)) / 8 + 8 * n : 20 * arcs + 8 * n;
+        long solve = topology + 8 * arcs + 16 * n;
+        // Building the arrays: five of arcs and two of vertices, then the
+        // lists of arcs leaving and entering each vertex; or, compressed,
+        // the residuals and flows, one column at a time and the packed ones
+        long build = compressed ? 12 * arcs + topology + 4 * n : 28 * arcs + 8 * n;
+        if (engine == Network.Engine.PUSH_RELABEL) {
+            // Labels, excesses and regions, and a copy of every region's arcs
+            solve += 16 * n + 36 * arcs;
+        }
+        return Math.max(build, solve);
+    }
+
+    /**
+     * The flow graph the solve returns, while it is built
+     * @return the size in bytes
+     */
+
+    public long flowGraph() {
+        return 16 * nodes + FLOW_ARC_BYTES * 2 * edges;
+    }
+
+    /**
+     * The most the solve holds at once
+     * @return the size in bytes
+     */
+
+    public long peak() {
+        return network() + residuals() + Math.max(solver(), flowGraph());
+    }
+
+    /**
+     * The number of bits a packed column of values below a bound takes per value
+     * @param bound the bound
+     * @return the bits
+     */
+
+    private static long bits(long bound) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(bound));
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "MemoryEstimate " + engine + (compressed ? " compressed" : "") + " peak " + peak()
+            + " (network " + network() + ", residuals " + residuals() + ", solver " + solver()
+            + ", flow graph " + flowGraph() + ")";
+    }
+}
@@ -1,6 +1,15 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.io.IOException;
 import java.lang.Math;
 
 /**
@@ -13,6 +22,63 @@ import java.lang.Math;
 
 public class Network
 {
+    /**
+     * The ways a maximum flow can be found
+     */
+    
+    public enum Engine {
+        /**
+         * Repeated depth-first searches over the graph's edges, augmenting
+         * while the path found still has room
+         */
+        CLASSIC,
+        
+        /**
+         * Shortest augmenting paths over the residual graph, found with a
+         * parallel breadth-first search
+         */
+        SHORTEST_PATH,
+        
+        /**
+         * Push-relabel with global relabeling, in this process
+         */
+        PUSH_RELABEL,
+        
+        /**
+         * Hopcroft-Karp matching, for unit-capacity bipartite networks only.
+         * SHORTEST_PATH and PUSH_RELABEL switch to it on their own when
+         * they are given such a network.
+         */
+        MATCHING
+    }
+    
+    /**
+     * The ways the vertices can be numbered in the array form of the
+     * residual graph
+     */
+    
+    public enum Ordering {
+        /**
+         * The order the graph lists them in
+         */
+        INPUT,
+        
+        /**
+         * Breadth-first from the source, ignoring arc direction
+         */
+        BFS,
+        
+        /**
+         * Reverse Cuthill-McKee, which keeps the ends of every arc close
+         */
+        REVERSE_CUTHILL_MCKEE,
+        
+        /**
+         * By decreasing number of arcs, so the busiest vertices sit together
+         */
+        DEGREE
+    }
+    
     /**
     * The graph being modeled
     */
@@ -43,6 +109,55 @@ public class Network
     
     private Vertex sink;
     
+    /**
+     * The vertices of the graph in input order, including any dropped by preprocessing
+     */
+    
+    private List<Vertex> graphVertices;
+    
+    /**
+     * The edges of the graph in input order, including any dropped by preprocessing
+     */
+    
+    private List<Edge> graphEdges;
+    
+    /**
+     * Whether the residual edges have been added
+     */
+    
+    private boolean hasResiduals;
+    
+    /**
+     * The vertices by name
+     */
+    
+    private Map<String, Vertex> index;
+    
+    /**
+     * Whether the array form of the residual graph is compacted
+     */
+    
+    private boolean compressed;
+    
+    /**
+     * How the array form of the residual graph numbers the vertices
+     */
+    
+    private Ordering ordering = Ordering.INPUT;
+    
+    /**
+     * The vertices the last search discovered, kept so they can be cleared
+     * without clearing every vertex, and the search's stack
+     */
+    
+    private Vertex[] reached = new Vertex[16], stack = new Vertex[16];
+    
+    /**
+     * The number of vertices the last search discovered
+     */
+    
+    private int reachedCount;
+    
     /**
      * Constructor for objects of class Network
      * @param g the graph in question
@@ -54,17 +169,62 @@ public class Network
     {
         this.vertices = new ArrayList<Vertex>();
         this.edges = new ArrayList<Edge>();
+        this.graphVertices = new ArrayList<Vertex>();
+        this.graphEdges = new ArrayList<Edge>();
+        this.index = new HashMap<String, Vertex>();
         this.g = g;
         List<List<String>> nodes = g.getNodesAsStrings();
-        List<List<String>> edges = g.getEdgesAsStrings();
         for (List<String> node : nodes) {
             addVertex(new Vertex(node.get(0),(Integer)(Integer.parseInt(node.get(1)))));
         }
         
-        for (List<String> edge : edges) {
-            Vertex start = getVertex(edge.get(0));
-            Vertex end = getVertex(edge.get(1));
-            this.edges.add(start.addEdge(new Edge(start,end,Boolean.parseBoolean(edge.get(2)),edge.get(3),0,(Integer)Integer.parseInt(edge.get(4)))));
+        // Read the edges by index rather than as strings, so large graphs
+        // are not copied into a list of strings first, and resolve their
+        // ends without building the graph's adjacency index
+        int[] starts = new int[g.edgeCount()];
+        int[] ends = new int[g.edgeCount()];
+        g.edgeEndpoints(starts, ends);
+        for (int i = 0; i < g.edgeCount(); i++) {
+            Vertex start = graphVertices.get(starts[i]);
+            Vertex end = graphVertices.get(ends[i]);
+            Edge e = start.addEdge(new Edge(start,end,g.isEdgeDirected(i),"" + g.edgeLabel(i),0,g.edgeWeight(i)));
+            this.edges.add(e);
+            this.graphEdges.add(e);
+        }
+        
+        this.source = getVertex(source);
+        this.sink = getVertex(sink);
+    }
+    
+    /**
+     * Constructor for a network over the same graph as another, with its own
+     * source and sink, that copies the other network's vertices and edges
+     * instead of reading the graph again. The copy starts with no flow and
+     * without the other network's pruning or contraction.
+     * @param other the network to copy
+     * @param source the name of the source
+     * @param sink the name of the sink
+     */
+    
+    public Network(Network other, String source, String sink)
+    {
+        this.vertices = new ArrayList<Vertex>();
+        this.edges = new ArrayList<Edge>();
+        this.graphVertices = new ArrayList<Vertex>();
+        this.graphEdges = new ArrayList<Edge>();
+        this.index = new HashMap<String, Vertex>();
+        this.g = other.g;
+        this.compressed = other.compressed;
+        this.ordering = other.ordering;
+        for (Vertex v : other.graphVertices) {
+            addVertex(new Vertex(v.name(), v.cost));
+        }
+        for (Edge edge : other.graphEdges) {
+            Vertex start = getVertex(edge.start().name());
+            Vertex end = getVertex(edge.end().name());
+            Edge e = start.addEdge(new Edge(start,end,edge.directed(),edge.label(),0,edge.flow + edge.residual));
+            this.edges.add(e);
+            this.graphEdges.add(e);
         }
         
         this.source = getVertex(source);
@@ -79,6 +239,8 @@ public class Network
     
     private Vertex addVertex(Vertex v) {
         this.vertices.add(v);
+        this.graphVertices.add(v);
+        if (!this.index.containsKey(v.name())) this.index.put(v.name(), v);
         return v;
     }
     
@@ -89,10 +251,7 @@ public class Network
      */
     
     private Vertex getVertex(String name) {
-        for (Vertex v : vertices) {
-            if (v.name().equals(name)) return v;
-        }
-        return null;
+        return index.get(name);
     }
 
     /**
@@ -127,40 +286,345 @@ public class Network
     }
     
     /**
-     * Breadth-first-search
+     * Clear only what the last search touched: the vertices it discovered
+     * and the edges leaving them
+     */
+    
+    private void clearReached() {
+        for (int i = 0; i < reachedCount; i++) {
+            Vertex v = reached[i];
+            v.clear();
+            for (Edge e : v.getEdgeList()) {
+                e.clear();
+            }
+            reached[i] = null;
+        }
+        reachedCount = 0;
+    }
+    
+    /**
+     * Breadth-first-search, taking vertices from the end of the queue, over
+     * arrays kept from one search to the next
      * @param start the starting point for the breadth first search
      */
     
     private void bfs(Vertex start) {
-        LinkedList<Vertex> q = new LinkedList<Vertex>();
-        q.add(start);
+        int size = 0;
+        stack[size++] = start;
         start.discover();
-        while (!q.isEmpty()) {
-            Vertex v = q.removeLast(); 
+        reach(start);
+        while (size > 0) {
+            Vertex v = stack[--size];
+            stack[size] = null;
             List<Edge> edges = v.getEdgeList();
             for (Edge e : edges) {
                 if (!e.isProcessed()) {
                     e.process();
                 }
                 if (!e.end.isDiscovered()) {
-                    q.add(e.end);
+                    if (size == stack.length) stack = Arrays.copyOf(stack, 2 * size);
+                    stack[size++] = e.end;
                     e.end.discover();
+                    e.end.setParent(v, e);
+                    reach(e.end);
                 }
-                e.end.setParent(v);
             }
         }
     }
     
     /**
-     * Add residual edges to the graph for modeling
+     * Note that a search discovered a vertex
+     * @param v the vertex
+     */
+    
+    private void reach(Vertex v) {
+        if (reachedCount == reached.length) reached = Arrays.copyOf(reached, 2 * reachedCount);
+        reached[reachedCount++] = v;
+    }
+    
+    /**
+     * Map each vertex to the list of edges that end at it
+     * @return the incoming edge lists
+     */
+    
+    private Map<Vertex, List<Edge>> incoming() {
+        Map<Vertex, List<Edge>> in = new HashMap<Vertex, List<Edge>>();
+        for (Vertex v : vertices) {
+            in.put(v, new ArrayList<Edge>());
+        }
+        for (Edge e : edges) {
+            in.get(e.end).add(e);
+        }
+        return in;
+    }
+    
+    /**
+     * Find every vertex reachable from a starting point, following edges
+     * forward or backward. Undirected edges are followed either way.
+     * @param start the starting point
+     * @param backward true to follow edges from end to start
+     * @return the set of reachable vertices, including the start
+     */
+    
+    private Set<Vertex> reach(Vertex start, boolean backward) {
+        Map<Vertex, List<Edge>> in = incoming();
+        Set<Vertex> seen = new HashSet<Vertex>();
+        LinkedList<Vertex> q = new LinkedList<Vertex>();
+        q.add(start);
+        seen.add(start);
+        while (!q.isEmpty()) {
+            Vertex v = q.removeFirst();
+            for (Edge e : v.getEdgeList()) {
+                if ((!backward || !e.directed) && seen.add(e.end)) q.add(e.end);
+            }
+            for (Edge e : in.get(v)) {
+                if ((backward || !e.directed) && seen.add(e.start)) q.add(e.start);
+            }
+        }
+        return seen;
+    }
+    
+    /**
+     * Drop every vertex that cannot be reached from the source or cannot
+     * reach the sink, along with its edges, so the solve only visits the part
+     * of the network that can carry flow. Dropped edges carry no flow but are
+     * still reported under their original labels. Must be called before maxFlow.
+     * @return the number of edges dropped
+     */
+    
+    public int prune() {
+        if (hasResiduals) throw new IllegalStateException("prune must be called before maxFlow");
+        Set<Vertex> keep = reach(source, false);
+        keep.retainAll(reach(sink, true));
+        keep.add(source);
+        keep.add(sink);
+        
+        int dropped = 0;
+        for (Iterator<Edge> it = edges.iterator(); it.hasNext();) {
+            Edge e = it.next();
+            if (!keep.contains(e.start) || !keep.contains(e.end)) {
+                e.start.getEdgeList().remove(e);
+                it.remove();
+                dropped++;
+            }
+        }
+        vertices.retainAll(keep);
+        return dropped;
+    }
+    
+    /**
+     * Merge parallel edges into one edge carrying their summed capacity and
+     * collapse chains through vertices with a single edge in and a single edge
+     * out into one edge carrying the smallest capacity, until neither applies.
+     * The flow found on a merged edge is handed back to the edges it replaced,
+     * so results are still reported on the original edges and labels.
+     * Must be called before maxFlow.
+     * @return the number of edges removed
+     */
+    
+    public int contract() {
+        if (hasResiduals) throw new IllegalStateException("contract must be called before maxFlow");
+        int before = edges.size();
+        boolean changed = true;
+        while (changed) {
+            changed = mergeParallel();
+            changed = collapseSeries() || changed;
+        }
+        return before - edges.size();
+    }
+    
+    /**
+     * Keep the topology of the array form of the residual graph bit-packed
+     * during SHORTEST_PATH, PUSH_RELABEL, distributed and bounded solves and
+     * in sourceSide, trading some decoding on every arc visited for far less
+     * memory on large sparse networks. Capacities and flows stay plain. With
+     * the input ordering each column is packed as it is built, so building
+     * the array form holds one plain array of arcs for the topology instead
+     * of five; with another ordering it is built plain and packed after.
+     */
+    
+    public void compressTopology() {
+        this.compressed = true;
+    }
+    
+    /**
+     * Number the vertices of the array form of the residual graph in the
+     * given order, so SHORTEST_PATH, PUSH_RELABEL, distributed and bounded
+     * solves scan memory in order. Results are still reported under the
+     * original labels.
+     * @param ordering the ordering
+     */
+    
+    public void reorder(Ordering ordering) {
+        this.ordering = ordering;
+    }
+    
+    /**
+     * The mean distance between the numbers of the two ends of an arc of
+     * the array form of the residual graph, under the current ordering.
+     * Lower means better locality, for comparing orderings.
+     * @return the mean distance
+     */
+    
+    public double arcSpan() {
+        return residualGraph(vertices, edges).span();
+    }
+    
+    /**
+     * Merge every group of edges sharing a start, an end and directedness
+     * @return true if any edges were merged
+     */
+    
+    private boolean mergeParallel() {
+        boolean changed = false;
+        for (Vertex v : vertices) {
+            Map<Vertex, Edge> first = new HashMap<Vertex, Edge>();
+            Map<Vertex, Edge> firstUndirected = new HashMap<Vertex, Edge>();
+            Map<Edge, List<Edge>> groups = new HashMap<Edge, List<Edge>>();
+            for (Edge e : v.getEdgeList()) {
+                Map<Vertex, Edge> byEnd = e.directed ? first : firstUndirected;
+                Edge f = byEnd.get(e.end);
+                if (f == null) {
+                    byEnd.put(e.end, e);
+                    groups.put(e, new ArrayList<Edge>());
+                }
+                groups.get(f == null ? e : f).add(e);
+            }
+            for (Map.Entry<Edge, List<Edge>> group : groups.entrySet()) {
+                List<Edge> parts = group.getValue();
+                if (parts.size() < 2) continue;
+                int capacity = 0;
+                for (Edge e : parts) capacity += e.residual;
+                Edge merged = new Edge(v,group.getKey().end,group.getKey().directed,group.getKey().label(),0,capacity);
+                merged.combine(parts, false);
+                replace(parts, merged);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Collapse every chain u -> v -> w of directed edges where v is neither
+     * the source nor the sink and has exactly one edge in and one edge out
+     * @return true if any chains were collapsed
+     */
+    
+    private boolean collapseSeries() {
+        boolean changed = false;
+        Map<Vertex, List<Edge>> in = incoming();
+        for (Iterator<Vertex> it = vertices.iterator(); it.hasNext();) {
+            Vertex v = it.next();
+            if (v == source || v == sink) continue;
+            if (in.get(v).size() != 1 || v.getEdgeList().size() != 1) continue;
+            Edge a = in.get(v).get(0);
+            Edge b = v.getEdgeList().get(0);
+            if (!a.directed || !b.directed) continue;
+            if (a.start == v || b.end == v || a.start == b.end) continue;
+            
+            Edge chain = new Edge(a.start,b.end,true,a.label(),0,Math.min(a.residual,b.residual));
+            List<Edge> parts = new ArrayList<Edge>();
+            parts.add(a);
+            parts.add(b);
+            chain.combine(parts, true);
+            replace(parts, chain);
+            List<Edge> wIn = in.get(b.end);
+            wIn.set(wIn.indexOf(b), chain);
+            it.remove();
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * Put a merged edge in place of the first of the edges it replaces,
+     * both in the edge list and in the start vertex's edge list
+     * @param parts the edges being replaced
+     * @param merged the merged edge
+     */
+    
+    private void replace(List<Edge> parts, Edge merged) {
+        Edge first = parts.get(0);
+        List<Edge> out = first.start.getEdgeList();
+        out.set(out.indexOf(first), merged);
+        edges.set(edges.indexOf(first), merged);
+        for (int i = 1; i < parts.size(); i++) {
+            parts.get(i).start.getEdgeList().remove(parts.get(i));
+            edges.remove(parts.get(i));
+        }
+    }
+    
+    /**
+     * Hand the flow on a merged edge back to the edges it replaced: every
+     * edge of a chain carries the full flow, parallel edges are filled in
+     * order. Flow on an undirected edge may run either way.
+     * @param e the edge to expand
+     */
+    
+    private void expand(Edge e) {
+        if (e.parts == null) return;
+        int sign = (e.flow < 0) ? -1 : 1;
+        int remaining = Math.abs(e.flow);
+        for (Edge part : e.parts) {
+            int capacity = part.flow + part.residual;
+            int f = e.series ? e.flow : sign * Math.min(remaining, capacity);
+            remaining -= Math.abs(f);
+            part.residual = capacity - f;
+            part.flow = f;
+            if (part.twin != null) {
+                part.twin.residual = (part.directed ? 0 : capacity) + f;
+                part.twin.flow = -f;
+            }
+            expand(part);
+        }
+    }
+    
+    /**
+     * Add residual edges to the graph for modeling, once. Every edge of the
+     * graph gets a residual twin, but only those of edges still in the
+     * network are modeled. An undirected edge and its twin form a single
+     * pair sharing the capacity both ways, so the twin starts out with the
+     * full capacity and is searched like any other edge.
      */
     
     private void addResidualEdges() {
+        if (hasResiduals) return;
         ArrayList<Edge> residuals = new ArrayList<Edge>();
+        for (Edge e : graphEdges) {
+            pair(e);
+        }
         for (Edge e : edges) {
-            residuals.add(new Edge(e.end,e.start,true,e.label() + "'",e.flow(),0));
+            if (e.twin == null) pair(e);
+            if (!e.directed) e.end.addEdge(e.twin);
+            residuals.add(e.twin);
         }
         edges.addAll(residuals);
+        hasResiduals = true;
+    }
+    
+    /**
+     * Create the residual twin of an edge
+     * @param e the edge
+     */
+    
+    private void pair(Edge e) {
+        e.twin = new Edge(e.end,e.start,true,e.label() + "'",e.flow(),e.directed ? 0 : e.residual());
+        e.twin.twin = e;
+    }
+    
+    /**
+     * Every edge of the graph followed by the residual twins, if any, in input order
+     * @return the list of edges to report
+     */
+    
+    private List<Edge> graphEdgesWithResiduals() {
+        List<Edge> all = new ArrayList<Edge>(graphEdges);
+        if (hasResiduals) {
+            for (Edge e : graphEdges) {
+                all.add(e.twin);
+            }
+        }
+        return all;
     }
     
     /**
@@ -169,20 +633,751 @@ public class Network
      */
     
     public Graph maxFlow() {
+        return maxFlow(Engine.CLASSIC);
+    }
+    
+    /**
+     * Generate a maximum flow from the graph with the given engine and return it
+     * @param engine the engine
+     * @return the flow graph
+     */
+    
+    public Graph maxFlow(Engine engine) {
+        return maxFlow(engine, null);
+    }
+    
+    /**
+     * Generate a maximum flow with the given engine, taking the working
+     * arrays of SHORTEST_PATH and PUSH_RELABEL from a workspace kept between
+     * solves instead of allocating them. The workspace is only drawn on with
+     * the input ordering and an uncompressed topology.
+     * @param engine the engine
+     * @param workspace the arrays to reuse, or null
+     * @return the flow graph
+     */
+    
+    public Graph maxFlow(Engine engine, SolverWorkspace workspace) {
+        SolverWorkspace w = (ordering == Ordering.INPUT && !compressed) ? workspace : null;
+        if (w != null) w.reset();
+        Map<Vertex, Integer> left = new HashMap<Vertex, Integer>();
+        Map<Vertex, Integer> right = new HashMap<Vertex, Integer>();
+        boolean bipartite = (engine != Engine.CLASSIC) && bipartition(left, right);
+        if (engine == Engine.MATCHING && !bipartite) {
+            throw new IllegalArgumentException("not a unit-capacity bipartite network");
+        }
         addResidualEdges();
-        clear();
-        bfs(source);
-        int volume = pathVolume(source,sink);
-        while (volume > 0) {
-            augmentPath(source,sink,volume);
+        if (bipartite) {
+            match(left, right);
+        } else if (engine == Engine.SHORTEST_PATH) {
+            ResidualGraph r = residualGraph(vertices, edges, w);
+            shortestPaths(r, null, w);
+            store(r, edges);
+        } else if (engine == Engine.PUSH_RELABEL) {
+            ResidualGraph r = residualGraph(vertices, edges, w);
+            new RegionSolver(r, r.vertex(vertices.indexOf(source)), r.vertex(vertices.indexOf(sink)), w).solve();
+            store(r, edges);
+        } else {
             clear();
             bfs(source);
-            volume = pathVolume(source,sink);
+            int volume = pathVolume(source,sink);
+            while (volume > 0) {
+                augmentPath(source,sink,volume);
+                clearReached();
+                bfs(source);
+                volume = pathVolume(source,sink);
+            }
+        }
+        for (Edge e : edges) {
+            expand(e);
         }
         
         return this.saveFlow();
     }
     
+    /**
+     * Find the value of a maximum flow straight from the graph's arrays,
+     * without building vertex and edge objects or a flow graph, so that
+     * repeated solves with one workspace allocate next to nothing. Only
+     * SHORTEST_PATH and PUSH_RELABEL solve this way, and PUSH_RELABEL still
+     * copies the arcs of each region it discharges.
+     * @param g the graph
+     * @param source the label of the source
+     * @param sink the label of the sink
+     * @param engine SHORTEST_PATH or PUSH_RELABEL
+     * @param workspace the arrays to reuse, or null
+     * @return the value of the flow
+     * @throws IllegalArgumentException for another engine, a source or sink
+     *         that is not a node, or an edge with no weight or naming a
+     *         label that is not a node
+     */
+    
+    public static long maxFlowValue(Graph g, String source, String sink, Engine engine, SolverWorkspace workspace) {
+        if (engine != Engine.SHORTEST_PATH && engine != Engine.PUSH_RELABEL) {
+            throw new IllegalArgumentException(engine + " does not solve on arrays alone");
+        }
+        int s = g.nodeId(source);
+        int t = g.nodeId(sink);
+        if (s < 0 || t < 0) throw new IllegalArgumentException("no node " + ((s < 0) ? source : sink));
+        SolverWorkspace w = (workspace == null) ? new SolverWorkspace() : workspace;
+        w.reset();
+        int m = g.edgeCount();
+        int[] tail = w.ints(2 * m);
+        int[] head = w.ints(2 * m);
+        int[] residual = w.ints(2 * m);
+        int[] flow = w.ints(2 * m);
+        int[] mate = w.ints(2 * m);
+        // Each edge and then its residual twin, as addResidualEdges lays them out
+        g.edgeEndpoints(tail, head);
+        for (int i = 0; i < m; i++) {
+            int u = tail[i];
+            int v = head[i];
+            if (u < 0 || v < 0) throw new IllegalArgumentException("edge " + i + " names a label that is not a node");
+            if (!g.isEdgeWeighted(i)) throw new IllegalArgumentException("edge " + i + " has no weight");
+            int weight = g.edgeWeightValue(i);
+            tail[i] = head[m + i] = u;
+            head[i] = tail[m + i] = v;
+            residual[i] = weight;
+            residual[m + i] = g.isEdgeDirected(i) ? 0 : weight;
+            flow[i] = flow[m + i] = 0;
+            mate[i] = m + i;
+            mate[m + i] = i;
+        }
+        ResidualGraph r = new ResidualGraph(g.nodeCount(), 2 * m, tail, head, residual, flow, mate, w);
+        if (engine == Engine.SHORTEST_PATH) shortestPaths(r, s, t, null, w);
+        else new RegionSolver(r, s, t, w).solve();
+        return Scans.get().netFlow(tail, head, flow, 0, m, s);
+    }
+    
+    /**
+     * Is this a unit-capacity bipartite matching problem, with no flow yet?
+     * That is, every edge is directed with capacity 1 and runs from the
+     * source to a left vertex, from a left vertex to a right vertex, or from
+     * a right vertex to the sink; every left vertex has one edge from the
+     * source and every right vertex one edge to the sink.
+     * @return true or false
+     */
+    
+    public boolean isBipartiteMatching() {
+        return bipartition(new HashMap<Vertex, Integer>(), new HashMap<Vertex, Integer>());
+    }
+    
+    /**
+     * Split the vertices into the two sides of a unit-capacity bipartite
+     * matching problem, if this is one
+     * @param left receives the left vertices, numbered from 0
+     * @param right receives the right vertices, numbered from 0
+     * @return true if this is a matching problem
+     */
+    
+    private boolean bipartition(Map<Vertex, Integer> left, Map<Vertex, Integer> right) {
+        List<Edge> live = hasResiduals ? edges.subList(0, edges.size() / 2) : edges;
+        for (Edge e : live) {
+            if (!e.directed || e.flow != 0 || e.residual != 1) return false;
+            if (e.start == source && e.end == sink) return false;
+            if (e.start == source) {
+                if (left.containsKey(e.end)) return false;
+                left.put(e.end, left.size());
+            } else if (e.end == sink) {
+                if (right.containsKey(e.start)) return false;
+                right.put(e.start, right.size());
+            }
+        }
+        if (left.containsKey(source) || right.containsKey(sink)) return false;
+        for (Vertex v : left.keySet()) {
+            if (right.containsKey(v)) return false;
+        }
+        for (Edge e : live) {
+            if (e.start == source || e.end == sink) continue;
+            if (!left.containsKey(e.start) || !right.containsKey(e.end)) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Solve a matching problem with Hopcroft-Karp and put one unit of flow
+     * through each matched pair
+     * @param left the left vertices, numbered from 0
+     * @param right the right vertices, numbered from 0
+     */
+    
+    private void match(Map<Vertex, Integer> left, Map<Vertex, Integer> right) {
+        List<Edge> live = edges.subList(0, edges.size() / 2);
+        Edge[] fromSource = new Edge[left.size()];
+        Edge[] toSink = new Edge[right.size()];
+        int[] start = new int[left.size() + 1];
+        for (Edge e : live) {
+            if (e.start == source) fromSource[left.get(e.end)] = e;
+            else if (e.end == sink) toSink[right.get(e.start)] = e;
+            else start[left.get(e.start) + 1]++;
+        }
+        for (int u = 0; u < left.size(); u++) {
+            start[u + 1] += start[u];
+        }
+        int[] next = Arrays.copyOf(start, left.size());
+        int[] adj = new int[start[left.size()]];
+        Edge[] arcs = new Edge[adj.length];
+        for (Edge e : live) {
+            if (e.start == source || e.end == sink) continue;
+            int k = next[left.get(e.start)]++;
+            adj[k] = right.get(e.end);
+            arcs[k] = e;
+        }
+        HopcroftKarp matching = new HopcroftKarp(left.size(), right.size(), start, adj);
+        matching.solve();
+        for (int u = 0; u < left.size(); u++) {
+            int k = matching.matched(u);
+            if (k < 0) continue;
+            push(fromSource[u]);
+            push(arcs[k]);
+            push(toSink[adj[k]]);
+        }
+    }
+    
+    /**
+     * Push one unit of flow along an edge
+     * @param e the edge
+     */
+    
+    private void push(Edge e) {
+        e.flow += 1;
+        e.residual -= 1;
+        e.twin.residual += 1;
+        e.twin.flow -= 1;
+    }
+    
+    /**
+     * Generate a maximum flow by splitting the network into regions and
+     * discharging them with push-relabel in worker processes started on this
+     * machine, one region per worker. The workers are stopped before returning.
+     * @param workers the number of worker processes
+     * @return the flow graph
+     * @throws IOException if a worker cannot be started or reached
+     */
+    
+    public Graph maxFlowDistributed(int workers) throws IOException {
+        addResidualEdges();
+        ResidualGraph r = residualGraph(vertices, edges);
+        RegionSolver solver = new RegionSolver(r, r.vertex(vertices.indexOf(source)), r.vertex(vertices.indexOf(sink)));
+        solver.partition(workers);
+        solver.solveWithWorkers(workers);
+        store(r, edges);
+        for (Edge e : edges) {
+            expand(e);
+        }
+        return this.saveFlow();
+    }
+    
+    /**
+     * Generate a maximum flow with the given engine, writing a checkpoint of
+     * the solve to a file whenever the interval has passed. If the process
+     * dies, resume continues from the last checkpoint.
+     * @param engine the engine, SHORTEST_PATH or PUSH_RELABEL
+     * @param checkpointFileName the checkpoint file
+     * @param interval milliseconds between checkpoints
+     * @return the flow graph
+     * @throws IOException if a checkpoint cannot be written
+     */
+    
+    public Graph maxFlow(Engine engine, String checkpointFileName, long interval) throws IOException {
+        addResidualEdges();
+        ResidualGraph r = residualGraph(vertices, edges);
+        return solve(r, new Checkpoint(checkpointFileName, engine, r, interval), engine, null);
+    }
+    
+    /**
+     * Continue a solve from its last checkpoint and return the flow graph.
+     * The network must be built from the same graph, source and sink, and
+     * pruned or contracted the same way, as the one that wrote the checkpoint.
+     * Checkpoints keep being written to the same file.
+     * @param checkpointFileName the checkpoint file
+     * @param interval milliseconds between checkpoints
+     * @return the flow graph
+     * @throws IOException if the checkpoint cannot be read, does not match
+     *         this network, or cannot be written
+     */
+    
+    public Graph resume(String checkpointFileName, long interval) throws IOException {
+        if (hasResiduals) throw new IllegalStateException("resume must be called before maxFlow");
+        addResidualEdges();
+        ResidualGraph r = residualGraph(vertices, edges);
+        Engine engine = Checkpoint.engine(checkpointFileName);
+        Checkpoint checkpoint = new Checkpoint(checkpointFileName, engine, r, interval);
+        int[] labels = Checkpoint.restore(checkpointFileName, r);
+        return solve(r, checkpoint, engine, labels);
+    }
+    
+    /**
+     * Run a checkpointed solve on the array form of the residual graph
+     * @param r the residual graph of the live edges
+     * @param checkpoint where snapshots go
+     * @param engine the engine, SHORTEST_PATH or PUSH_RELABEL
+     * @param labels labels to continue from, or null
+     * @return the flow graph
+     * @throws IOException if a checkpoint cannot be written
+     */
+    
+    private Graph solve(ResidualGraph r, Checkpoint checkpoint, Engine engine, int[] labels) throws IOException {
+        if (engine == Engine.SHORTEST_PATH) {
+            shortestPaths(r, checkpoint);
+        } else if (engine == Engine.PUSH_RELABEL) {
+            RegionSolver solver = new RegionSolver(r, r.vertex(vertices.indexOf(source)), r.vertex(vertices.indexOf(sink)));
+            solver.checkpoint(checkpoint);
+            if (labels != null) solver.restore(labels);
+            solver.solve();
+        } else {
+            throw new IllegalArgumentException(engine + " cannot be checkpointed");
+        }
+        checkpoint.finish();
+        store(r, edges);
+        for (Edge e : edges) {
+            expand(e);
+        }
+        return this.saveFlow();
+    }
+    
+    /**
+     * Generate a maximum flow along shortest augmenting paths, stopping early
+     * once the deadline passes or the token is cancelled. The flow found so
+     * far is always feasible, so its value is a lower bound; each search also
+     * yields a cut between its levels, and the smallest seen is an upper
+     * bound. The bounds meet when the solve runs to completion.
+     * @param deadline when to stop, in System.currentTimeMillis() terms, or
+     *        Long.MAX_VALUE for no deadline
+     * @param token a token the caller can cancel, or null
+     * @param interval milliseconds between progress reports
+     * @param progress receives the bounds, without a flow graph, every
+     *        interval; or null
+     * @return the flow graph and bounds
+     */
+    
+    public BoundedFlow maxFlow(long deadline, CancelToken token, long interval, Consumer<BoundedFlow> progress) {
+        addResidualEdges();
+        ResidualGraph r = residualGraph(vertices, edges);
+        ParallelBfs search = new ParallelBfs(r);
+        int s = r.vertex(vertices.indexOf(source));
+        int t = r.vertex(vertices.indexOf(sink));
+        int lower = 0;
+        int upper = 0;
+        for (int k = r.outStart[s]; k < r.outStart[s + 1]; k++) {
+            int a = r.outArc(k);
+            lower += r.flow[a];
+            upper += r.residual[a] + r.flow[a];
+        }
+        long report = System.currentTimeMillis() + interval;
+        while (true) {
+            if (!search.search(s, t, false)) {
+                upper = lower;
+                break;
+            }
+            long now = System.currentTimeMillis();
+            boolean stop = now >= deadline || (token != null && token.isCancelled());
+            if (stop || (progress != null && now >= report)) {
+                upper = Math.min(upper, levelCut(r, search, t));
+            }
+            if (stop) break;
+            if (progress != null && now >= report) {
+                progress.accept(new BoundedFlow(null, lower, upper));
+                report = now + interval;
+            }
+            
+            int volume = Integer.MAX_VALUE;
+            for (int v = t; v != s; v = r.tail(search.parent(v))) {
+                volume = Math.min(volume, r.residual[search.parent(v)]);
+            }
+            for (int v = t; v != s; v = r.tail(search.parent(v))) {
+                r.push(search.parent(v), volume);
+            }
+            lower += volume;
+        }
+        store(r, edges);
+        for (Edge e : edges) {
+            expand(e);
+        }
+        return new BoundedFlow(this.saveFlow(), lower, upper);
+    }
+    
+    /**
+     * The smallest capacity among the cuts that separate the levels of a
+     * search that reached the sink. Every level set short of the sink's level
+     * holds the source and not the sink, so each is an s-t cut.
+     * @param r the residual graph
+     * @param search the search, which reached the sink
+     * @param t the sink
+     * @return the capacity of the smallest level cut
+     */
+    
+    private int levelCut(ResidualGraph r, ParallelBfs search, int t) {
+        int depth = search.level(t);
+        long[] change = new long[depth + 1];
+        for (int a = 0; a < r.m; a++) {
+            int from = search.level(r.tail(a));
+            int to = search.level(r.head(a));
+            if (from < 0 || from >= depth) continue;
+            if (to < 0 || to > depth) to = depth;
+            if (to <= from) continue;
+            // The arc crosses the cut after every level from its tail's up to its head's
+            int capacity = r.residual[a] + r.flow[a];
+            change[from] += capacity;
+            change[to] -= capacity;
+        }
+        long best = Long.MAX_VALUE;
+        long cut = 0;
+        for (int k = 0; k < depth; k++) {
+            cut += change[k];
+            best = Math.min(best, cut);
+        }
+        return (int)Math.min(best, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Augment along shortest paths in the residual graph until the sink can
+     * no longer be reached
+     * @param r the residual graph of the live edges
+     * @param checkpoint where snapshots go, or null
+     */
+    
+    private void shortestPaths(ResidualGraph r, Checkpoint checkpoint) {
+        shortestPaths(r, checkpoint, null);
+    }
+    
+    /**
+     * Augment along shortest paths in the residual graph until the sink can
+     * no longer be reached
+     * @param r the residual graph of the live edges
+     * @param checkpoint where snapshots go, or null
+     * @param workspace where the search's arrays come from, or null
+     */
+    
+    private void shortestPaths(ResidualGraph r, Checkpoint checkpoint, SolverWorkspace workspace) {
+        shortestPaths(r, r.vertex(vertices.indexOf(source)), r.vertex(vertices.indexOf(sink)), checkpoint, workspace);
+    }
+    
+    /**
+     * Augment along shortest paths in a residual graph until the sink can
+     * no longer be reached
+     * @param r the residual graph
+     * @param s the source
+     * @param t the sink
+     * @param checkpoint where snapshots go, or null
+     * @param workspace where the search's arrays come from, or null
+     */
+    
+    private static void shortestPaths(ResidualGraph r, int s, int t, Checkpoint checkpoint, SolverWorkspace workspace) {
+        ParallelBfs search = new ParallelBfs(r, ForkJoinPool.commonPool(), workspace);
+        while (search.search(s, t, false)) {
+            int volume = Integer.MAX_VALUE;
+            for (int v = t; v != s; v = r.tail(search.parent(v))) {
+                volume = Math.min(volume, r.residual[search.parent(v)]);
+            }
+            for (int v = t; v != s; v = r.tail(search.parent(v))) {
+                r.push(search.parent(v), volume);
+            }
+            if (checkpoint != null && checkpoint.due()) checkpoint.save(r.flow, null);
+        }
+    }
+    
+    /**
+     * Build the array form of part of the residual graph
+     * @param vs the vertices, numbered by position
+     * @param es the edges and residual edges, numbered by position
+     * @return the residual graph
+     */
+    
+    private ResidualGraph residualGraph(List<Vertex> vs, List<Edge> es) {
+        return residualGraph(vs, es, null);
+    }
+    
+    /**
+     * Build the array form of part of the residual graph
+     * @param vs the vertices, numbered by position
+     * @param es the edges and residual edges, numbered by position
+     * @param workspace where the arrays come from, or null to allocate
+     *        them; only for the input ordering
+     * @return the residual graph
+     */
+    
+    private ResidualGraph residualGraph(List<Vertex> vs, List<Edge> es, SolverWorkspace workspace) {
+        // Number the vertices and edges in place rather than in hash maps,
+        // which would cost more than the arrays themselves; a twin left out
+        // of es keeps -1
+        for (int v = 0; v < vs.size(); v++) {
+            vs.get(v).position = v;
+        }
+        for (Edge e : es) {
+            if (e.twin != null) e.twin.position = -1;
+        }
+        int m = es.size();
+        for (int i = 0; i < m; i++) {
+            es.get(i).position = i;
+        }
+        if (compressed && ordering == Ordering.INPUT) return packedResidualGraph(vs.size(), es);
+        int[] tail = (workspace == null) ? new int[m] : workspace.ints(m);
+        int[] head = (workspace == null) ? new int[m] : workspace.ints(m);
+        int[] residual = (workspace == null) ? new int[m] : workspace.ints(m);
+        int[] flow = (workspace == null) ? new int[m] : workspace.ints(m);
+        int[] mate = (workspace == null) ? new int[m] : workspace.ints(m);
+        for (int i = 0; i < m; i++) {
+            Edge e = es.get(i);
+            tail[i] = e.start.position;
+            head[i] = e.end.position;
+            residual[i] = e.residual;
+            flow[i] = e.flow;
+            mate[i] = (e.twin == null) ? -1 : e.twin.position;
+        }
+        ResidualGraph r;
+        if (ordering == Ordering.INPUT) {
+            r = new ResidualGraph(vs.size(), m, tail, head, residual, flow, mate, workspace);
+        } else {
+            int[] rank = VertexOrder.rank(ordering, vs.size(), tail, head, source.position);
+            r = ResidualGraph.renumbered(vs.size(), tail, head, residual, flow, mate, rank);
+        }
+        if (compressed) r.compact();
+        return r;
+    }
+    
+    /**
+     * Build the array form with its topology packed as it is read, filling
+     * one column of arcs at a time and packing it before the next, so the
+     * plain tails, heads, twins and arc lists are never held at once
+     * @param n the number of vertices, already numbered
+     * @param es the edges and residual edges, already numbered
+     * @return the residual graph
+     */
+    
+    private static ResidualGraph packedResidualGraph(int n, List<Edge> es) {
+        int m = es.size();
+        int[] residual = new int[m];
+        int[] flow = new int[m];
+        int[] column = new int[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = es.get(i);
+            residual[i] = e.residual;
+            flow[i] = e.flow;
+            column[i] = e.start.position;
+        }
+        PackedInts tail = new PackedInts(column, m);
+        for (int i = 0; i < m; i++) {
+            column[i] = es.get(i).end.position;
+        }
+        PackedInts head = new PackedInts(column, m);
+        for (int i = 0; i < m; i++) {
+            Edge twin = es.get(i).twin;
+            column[i] = (twin == null) ? -1 : twin.position;
+        }
+        PackedInts mate = new PackedInts(column, m);
+        return ResidualGraph.packed(n, residual, flow, tail, head, mate, column);
+    }
+    
+    /**
+     * Copy the flows and residuals of the array form back onto the edges
+     * @param r the residual graph
+     * @param es the edges it was built from
+     */
+    
+    private void store(ResidualGraph r, List<Edge> es) {
+        for (int i = 0; i < r.m; i++) {
+            Edge e = es.get(r.edge(i));
+            e.flow = r.flow[i];
+            e.residual = r.residual[i];
+        }
+    }
+    
+    /**
+     * Find the edge-disjoint paths from the source to the sink, counting
+     * every edge of the graph as one unit whatever its weight. Every edge of
+     * the graph is used, even if pruned or contracted away. The number of
+     * paths is the edge connectivity between source and sink.
+     * @return the paths and a smallest set of separating edges
+     * @throws IllegalArgumentException if the source is the sink
+     */
+    
+    public DisjointPaths disjointPaths() {
+        return disjointPaths(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Find up to a given number of edge-disjoint paths from the source to
+     * the sink, counting every edge of the graph as one unit, for checking
+     * that at least that many exist. Separating edges are only reported
+     * when fewer paths than the limit exist.
+     * @param limit the most paths to find
+     * @return the paths, and the separating edges if fewer than limit were found
+     * @throws IllegalArgumentException if the source is the sink
+     */
+    
+    public DisjointPaths disjointPaths(int limit) {
+        if (source == sink) throw new IllegalArgumentException("the source is the sink");
+        Map<Vertex, Integer> id = new HashMap<Vertex, Integer>();
+        for (Vertex v : graphVertices) {
+            id.put(v, id.size());
+        }
+        int m = graphEdges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        boolean[] directed = new boolean[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = graphEdges.get(i);
+            from[i] = id.get(e.start);
+            to[i] = id.get(e.end);
+            directed[i] = e.directed;
+        }
+        UnitDinic unit = new UnitDinic(graphVertices.size(), from, to, directed);
+        int s = id.get(source);
+        int t = id.get(sink);
+        int count = unit.solve(s, t, limit);
+        List<FlowPath> paths = new ArrayList<FlowPath>();
+        for (int[] arcs : unit.paths(s, t)) {
+            List<String> nodes = new ArrayList<String>();
+            List<String> labels = new ArrayList<String>();
+            nodes.add(source.name());
+            for (int a : arcs) {
+                nodes.add(graphVertices.get(unit.head(a)).name());
+                labels.add(graphEdges.get(unit.edge(a)).label());
+            }
+            paths.add(new FlowPath(nodes, labels, 1, false));
+        }
+        List<Integer> separating = new ArrayList<Integer>();
+        if (count < limit) {
+            for (int e : unit.cut(s)) {
+                separating.add(e);
+            }
+        }
+        return new DisjointPaths(paths, separating);
+    }
+    
+    /**
+     * Find the minimum cuts over a range of a parameter lambda, when the
+     * capacity of every edge is its weight plus a slope times lambda. Only
+     * edges at the source may have a positive slope and only edges at the
+     * sink a negative one, so the source sides of the cuts grow with lambda
+     * and there are fewer breakpoints than vertices. The whole range takes
+     * one solve per breakpoint, on graphs that shrink as the breakpoints
+     * close in, instead of one solve per value of lambda wanted. Every edge
+     * of the graph is used, even if pruned or contracted away.
+     * @param slopes the slope of each edge, in Graph.getEdgesAsStrings order
+     * @param low the lowest lambda
+     * @param high the highest lambda
+     * @return the breakpoints and the cut on each piece between them
+     */
+
+    public ParametricFlow parametricFlow(int[] slopes, long low, long high) {
+        if (slopes.length != graphEdges.size()) throw new IllegalArgumentException("one slope per edge needed");
+        if (low > high) throw new IllegalArgumentException("empty range");
+        Map<Vertex, Integer> id = new HashMap<Vertex, Integer>();
+        for (Vertex v : graphVertices) {
+            id.put(v, id.size());
+        }
+        int m = graphEdges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        boolean[] directed = new boolean[m];
+        long[] constant = new long[m];
+        long[] slope = new long[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = graphEdges.get(i);
+            boolean atSource = e.start == source || e.end == source;
+            boolean atSink = e.start == sink || e.end == sink;
+            if ((slopes[i] > 0 && !atSource) || (slopes[i] < 0 && !atSink)) {
+                throw new IllegalArgumentException("slope of edge " + e.label() + " must be 0, or positive at the source or negative at the sink");
+            }
+            from[i] = id.get(e.start);
+            to[i] = id.get(e.end);
+            directed[i] = e.directed;
+            constant[i] = e.flow + e.residual;
+            slope[i] = slopes[i];
+            if (constant[i] + slope[i] * low < 0 || constant[i] + slope[i] * high < 0) {
+                throw new IllegalArgumentException("capacity of edge " + e.label() + " is negative in the range");
+            }
+        }
+        Parametric parametric = new Parametric(graphVertices.size(), from, to, directed, constant, slope, id.get(source), id.get(sink));
+        parametric.solve(low, high);
+        List<Double> breakpoints = new ArrayList<Double>();
+        for (long[] fraction : parametric.breakpoints()) {
+            breakpoints.add((double)fraction[0] / fraction[1]);
+        }
+        List<List<String>> sides = new ArrayList<List<String>>();
+        long[] constants = new long[breakpoints.size() + 1];
+        long[] lineSlopes = new long[breakpoints.size() + 1];
+        for (int k = 0; k <= breakpoints.size(); k++) {
+            boolean[] side = parametric.side(k);
+            List<String> names = new ArrayList<String>();
+            for (int v = 0; v < side.length; v++) {
+                if (side[v]) names.add(graphVertices.get(v).name());
+            }
+            sides.add(names);
+            constants[k] = parametric.constant(k);
+            lineSlopes[k] = parametric.slope(k);
+        }
+        return new ParametricFlow(breakpoints, sides, constants, lineSlopes);
+    }
+    
+    /**
+     * Find the vertices reachable from the source along edges with residual
+     * capacity left. After a maximum flow these form the source side of a
+     * minimum cut.
+     * @return the names of the reachable vertices, in input order
+     */
+    
+    public List<String> sourceSide() {
+        ResidualGraph r = residualGraph(graphVertices, graphEdgesWithResiduals());
+        ParallelBfs search = new ParallelBfs(r);
+        search.search(r.vertex(graphVertices.indexOf(source)), -1, false);
+        List<String> side = new ArrayList<String>();
+        for (int v = 0; v < graphVertices.size(); v++) {
+            if (search.reached(r.vertex(v))) side.add(graphVertices.get(v).name());
+        }
+        return side;
+    }
+    
+    /**
+     * Find which edges limit the flow, from the residual graph left by a
+     * maximum flow, in O(V+E) rather than one solve per edge. An edge is in
+     * every minimum cut when the source still reaches its start and its end
+     * still reaches the sink. It is in some minimum cut when it is full, its
+     * start cannot reach the sink, the source cannot reach its end, and its
+     * ends lie in different strongly connected components of the residual
+     * graph. The flow must be maximum, so CLASSIC results may not qualify.
+     * @return the analysis, indexed like Graph.getEdgesAsStrings
+     * @throws IllegalStateException if no flow has been found yet
+     */
+
+    public EdgeSensitivity edgeSensitivity() {
+        if (!hasResiduals) throw new IllegalStateException("no flow found yet");
+        ResidualGraph r = residualGraph(graphVertices, graphEdgesWithResiduals());
+        int n = graphVertices.size();
+        boolean[] fromSource = new boolean[n];
+        boolean[] toSink = new boolean[n];
+        int[] component = new int[n];
+        ParallelBfs search = new ParallelBfs(r);
+        search.search(r.vertex(graphVertices.indexOf(source)), -1, false);
+        for (int v = 0; v < n; v++) {
+            fromSource[v] = search.reached(r.vertex(v));
+        }
+        search.search(r.vertex(graphVertices.indexOf(sink)), -1, true);
+        int[] components = r.strongComponents();
+        for (int v = 0; v < n; v++) {
+            toSink[v] = search.reached(r.vertex(v));
+            component[v] = components[r.vertex(v)];
+        }
+        Map<Vertex, Integer> id = new HashMap<Vertex, Integer>();
+        for (Vertex v : graphVertices) {
+            id.put(v, id.size());
+        }
+        int m = graphEdges.size();
+        boolean[] every = new boolean[m];
+        boolean[] some = new boolean[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = graphEdges.get(i);
+            int u = id.get(e.start);
+            int v = id.get(e.end);
+            every[i] = (fromSource[u] && toSink[v]) || (!e.directed && fromSource[v] && toSink[u]);
+            if (e.flow + e.residual == 0 || component[u] == component[v]) continue;
+            some[i] = (e.residual == 0 && !toSink[u] && !fromSource[v])
+                || (!e.directed && e.twin.residual == 0 && !toSink[v] && !fromSource[u]);
+        }
+        return new EdgeSensitivity(every, some);
+    }
+    
     /**
      * Augment the path from start to end with volume recursively
      * 
@@ -193,10 +1388,10 @@ public class Network
     
     private void augmentPath(Vertex start, Vertex end, int volume) {
         if (start == end) return;
-        Edge e = findEdge(end.parent,end);
+        Edge e = end.parentEdge;
         e.flow += volume;
         e.residual -= volume;
-        e = findEdge(end,end.parent);
+        e = e.twin;
         e.residual += volume;
         e.flow -= volume;
         augmentPath(start,end.parent,volume);
@@ -218,6 +1413,123 @@ public class Network
          return new Integer(total);
     }
     
+    /**
+     * Decompose the flow on the edges of the graph into s-t paths and cycles,
+     * handing each one to the consumer as soon as it is found instead of
+     * collecting them. Every vertex keeps a pointer to the next edge worth
+     * trying and every piece empties at least one edge, so there are at most
+     * E pieces and the whole decomposition takes O(V*E).
+     * @param consumer receives each path or cycle
+     * @return the number of paths and cycles found
+     */
+    
+    public int decomposeFlow(Consumer<FlowPath> consumer) {
+        Map<Vertex, Integer> id = new HashMap<Vertex, Integer>();
+        for (Vertex v : graphVertices) {
+            id.put(v, id.size());
+        }
+        int n = graphVertices.size();
+        int m = graphEdges.size();
+        
+        // Edges with flow, grouped by the vertex the flow leaves
+        int[] tail = new int[m];
+        int[] head = new int[m];
+        int[] left = new int[m];
+        int[] first = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            Edge e = graphEdges.get(i);
+            boolean backward = !e.directed && e.flow < 0;
+            tail[i] = id.get(backward ? e.end : e.start);
+            head[i] = id.get(backward ? e.start : e.end);
+            left[i] = backward ? -e.flow : Math.max(e.flow, 0);
+            if (left[i] > 0) first[tail[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            first[v + 1] += first[v];
+        }
+        int[] arcs = new int[first[n]];
+        int[] cur = Arrays.copyOf(first, n);
+        for (int i = 0; i < m; i++) {
+            if (left[i] > 0) arcs[cur[tail[i]]++] = i;
+        }
+        cur = Arrays.copyOf(first, n);
+        
+        int[] stack = new int[n + 1];
+        int[] via = new int[n];
+        int[] pos = new int[n];
+        Arrays.fill(pos, -1);
+        int s = id.get(source);
+        int t = id.get(sink);
+        int found = 0;
+        // Paths from the source first, then whatever cycles are left
+        for (int round = -1; round < n; round++) {
+            int start = (round < 0) ? s : round;
+            int depth = 0;
+            stack[0] = start;
+            pos[start] = 0;
+            while (depth >= 0) {
+                int v = stack[depth];
+                if (v == t && start == s) {
+                    emitFlowPath(consumer, stack, via, 0, depth - 1, head, left, false);
+                    found++;
+                    for (int i = 1; i <= depth; i++) pos[stack[i]] = -1;
+                    depth = 0;
+                    continue;
+                }
+                while (cur[v] < first[v + 1] && left[arcs[cur[v]]] == 0) cur[v]++;
+                if (cur[v] == first[v + 1]) {
+                    pos[v] = -1;
+                    depth--;
+                    if (depth >= 0) cur[stack[depth]]++;
+                    continue;
+                }
+                int e = arcs[cur[v]];
+                int w = head[e];
+                via[depth] = e;
+                if (pos[w] >= 0) {
+                    emitFlowPath(consumer, stack, via, pos[w], depth, head, left, true);
+                    found++;
+                    for (int i = pos[w] + 1; i <= depth; i++) pos[stack[i]] = -1;
+                    depth = pos[w];
+                } else {
+                    stack[++depth] = w;
+                    pos[w] = depth;
+                }
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Take the largest common amount off a run of edges on the decomposition
+     * stack and hand it to the consumer
+     * @param consumer receives the path or cycle
+     * @param stack the vertices on the stack
+     * @param via the edge taken from each vertex on the stack
+     * @param from the stack position the piece starts at
+     * @param to the stack position of the last edge of the piece
+     * @param head the end vertex of each edge
+     * @param left the flow left on each edge
+     * @param cycle true for a cycle, false for an s-t path
+     */
+    
+    private void emitFlowPath(Consumer<FlowPath> consumer, int[] stack, int[] via, int from, int to,
+                              int[] head, int[] left, boolean cycle) {
+        int amount = Integer.MAX_VALUE;
+        for (int i = from; i <= to; i++) {
+            amount = Math.min(amount, left[via[i]]);
+        }
+        List<String> nodes = new ArrayList<String>();
+        List<String> labels = new ArrayList<String>();
+        for (int i = from; i <= to; i++) {
+            left[via[i]] -= amount;
+            nodes.add(graphVertices.get(stack[i]).name());
+            labels.add(graphEdges.get(via[i]).label());
+        }
+        nodes.add(graphVertices.get(head[via[to]]).name());
+        consumer.accept(new FlowPath(nodes, labels, amount, cycle));
+    }
+    
     /**
      * Probe for the path volume recursively to determine how much
      * you can augment the path by
@@ -230,41 +1542,40 @@ public class Network
     private int pathVolume(Vertex start, Vertex end) {
         if (end.parent == null) return 0;
         
-        Edge e = findEdge(end.parent, end);
+        Edge e = end.parentEdge;
         
         if (start == end.parent) return e.residual;
         else return Math.min(pathVolume(start,end.parent),e.residual);
         
     }
     
-    /**
-     * Find an edge by its vertices
-     * @param start the start
-     * @param end the end
-     * @return the matching edge
-     */
-    
-    private Edge findEdge(Vertex start, Vertex end) {
-        for (Edge e : edges) {
-            if (e.start == start && e.end == end) return e;
-        }
-        return null;
-    }
-    
     /**
      * Convert the flow generated by the network into a graph
      * @reutrn the graph that represents the flow of this network
      */
     
     private Graph saveFlow() {
+        if (index.size() == graphVertices.size()) {
+            // Names are unique, so build the graph directly instead of
+            // through a list of strings for every edge
+            List<Edge> all = graphEdgesWithResiduals();
+            Graph.Builder builder = new Graph.Builder(true, graphVertices.size(), all.size());
+            for (Vertex v : graphVertices) {
+                builder.node(v.name(), 0);
+            }
+            for (Edge e : all) {
+                builder.edge(e.start().name(), e.end().name(), e.directed(), String.valueOf(e.label()), e.residual());
+            }
+            return builder.build();
+        }
         List<String> nodeList = new ArrayList<String>();
         List<Integer> nodeCosts = new ArrayList<Integer>();
-        for (Vertex v : vertices) { 
+        for (Vertex v : graphVertices) { 
             nodeList.add(v.name());
             nodeCosts.add(new Integer(0));
         }
         List<List<String>> edgeList = new ArrayList<List<String>>();
-        for (Edge e : this.edges) {
+        for (Edge e : graphEdgesWithResiduals()) {
             List<String> oneEdge = new ArrayList<String>();
             oneEdge.add(e.start().name());
             oneEdge.add(e.end().name());
@@ -285,7 +1596,7 @@ public class Network
          
     public Integer cutCapacity(List<String> cut) {
         int total = 0;
-        for (Edge e : edges) {
+        for (Edge e : graphEdgesWithResiduals()) {
             if (cut.contains(e.start().name()) && !cut.contains(e.end().name())) {
                 total += e.residual();
             }
@@ -316,6 +1627,100 @@ public class Network
         return cut;
     }
     
+    /**
+     * Check the current flow against a cut in one O(V+E) pass split across
+     * the common fork-join pool, instead of solving again: every edge must
+     * keep within its capacity in the graph, every vertex but the source and
+     * sink must conserve flow, and the cut must separate the source from the
+     * sink. The flow and the cut are both optimal if the flow's value equals
+     * the cut's capacity.
+     * @param cut the names of the vertices on the source side
+     * @return the certificate
+     */
+    
+    public FlowCertificate verify(List<String> cut) {
+        Set<String> names = new HashSet<String>(cut);
+        Map<Vertex, Integer> id = new HashMap<Vertex, Integer>();
+        int n = graphVertices.size();
+        String[] name = new String[n];
+        boolean[] side = new boolean[n];
+        for (Vertex v : graphVertices) {
+            name[id.size()] = v.name();
+            side[id.size()] = names.contains(v.name());
+            id.put(v, id.size());
+        }
+        int m = graphEdges.size();
+        int[] tail = new int[m];
+        int[] head = new int[m];
+        long[] capacity = new long[m];
+        long[] flow = new long[m];
+        boolean[] directed = new boolean[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = graphEdges.get(i);
+            tail[i] = id.get(e.start);
+            head[i] = id.get(e.end);
+            capacity[i] = g.edgeWeight(i);
+            flow[i] = e.flow;
+            directed[i] = e.directed;
+        }
+        FlowVerifier verifier = new FlowVerifier(n, tail, head, capacity, flow, directed, side, id.get(source), id.get(sink));
+        return verifier.verify(ForkJoinPool.commonPool(), name);
+    }
+    
+    /**
+     * Check the current flow against the cut found by sourceSide
+     * @return the certificate
+     */
+    
+    public FlowCertificate verify() {
+        return verify(sourceSide());
+    }
+    
+    /**
+     * Write the flow in the DIMACS solution format: "s value", then one
+     * "f start end flow" line per edge of the graph, in input order, with
+     * vertices given by name
+     * @param fileName the file
+     * @throws IOException if the file cannot be written
+     */
+    
+    public void writeFlow(String fileName) throws IOException {
+        long value = 0;
+        for (Edge e : graphEdges) {
+            if (e.start == source && e.end != source) value += e.flow;
+            if (e.end == source && e.start != source) value -= e.flow;
+        }
+        FlowFiles.Output out = new FlowFiles.Output(fileName);
+        try {
+            out.put("s ").put(value).newline();
+            for (Edge e : graphEdges) {
+                out.put("f ").put(e.start.name()).put(' ').put(e.end.name()).put(' ').put(e.flow).newline();
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Write the source side of the minimum cut found by sourceSide, one
+     * vertex name per line
+     * @param fileName the file
+     * @throws IOException if the file cannot be written
+     */
+    
+    public void writeMinCut(String fileName) throws IOException {
+        FlowFiles.Output out = new FlowFiles.Output(fileName);
+        try {
+            for (String name : sourceSide()) {
+                out.put(name).newline();
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+    
     /** 
      * toString method
      */
@@ -378,6 +1783,30 @@ public class Network
         
         public int residual;
         
+        /**
+         * The residual twin running the other way
+         */
+        
+        public Edge twin;
+        
+        /**
+         * The edges this edge replaced when the network was contracted, or null
+         */
+        
+        public List<Edge> parts;
+        
+        /**
+         * Whether the replaced edges form a chain rather than a parallel group
+         */
+        
+        public boolean series;
+        
+        /**
+         * The edge's number in the array form of the residual graph last built
+         */
+        
+        public int position;
+        
         /**
          * Constructor for objects of class Edge
          * @param start the starting point for the edge
@@ -397,6 +1826,22 @@ public class Network
             this.residual = residual;
         }
         
+        /**
+         * Record the edges this edge replaces. Merged edges that are themselves
+         * of the same kind are flattened so every part is an original edge.
+         * @param replaced the edges being replaced
+         * @param series true for a chain, false for a parallel group
+         */
+        
+        public void combine(List<Edge> replaced, boolean series) {
+            this.parts = new ArrayList<Edge>();
+            this.series = series;
+            for (Edge e : replaced) {
+                if (e.parts != null && e.series == series) this.parts.addAll(e.parts);
+                else this.parts.add(e);
+            }
+        }
+        
         /**
          * Check if the edge has been processed
          * @return true if it has, false if not
@@ -517,6 +1962,18 @@ public class Network
         
         public Vertex parent;
         
+        /**
+         * The edge from the parent according to a BFS
+         */
+        
+        public Edge parentEdge;
+        
+        /**
+         * The vertex's number in the array form of the residual graph last built
+         */
+        
+        public int position;
+        
         /**
          * Constructor for objects of class Vertex
          * @param name the name of the vertex
@@ -563,10 +2020,12 @@ public class Network
         /**
          * Set the parent
          * @param v the vertex to be assigned as the parent
+         * @param e the edge from the parent
          */
         
-        public void setParent(Vertex v) {
+        public void setParent(Vertex v, Edge e) {
             this.parent = v;
+            this.parentEdge = e;
         }
         
         /**
@@ -600,6 +2059,7 @@ public class Network
          */
         public void clear() {
             this.parent = null;
+            this.parentEdge = null;
             this.discovered = false;
         }
         
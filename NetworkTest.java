@@ -1,7 +1,21 @@
 import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -413,5 +427,1064 @@ public class NetworkTest
         expected.add("s");
         assertEquals(expected,n4.minCut());
     }
+    
+    @Test
+    public void testPrune() {
+        // 1 and 2 cannot reach the sink, 4 and 6 cannot be reached
+        assertEquals(4,n1.prune());
+        Network full = new Network(g1,"s","t");
+        Graph flow = n1.maxFlow();
+        assertEquals(full.maxFlow(),flow);
+        assertEquals(new Integer(8),n1.flowValue(flow));
+        
+        // Every vertex of g4 lies on an s-t path
+        assertEquals(0,n4.prune());
+    }
+    
+    @Test
+    public void testContract() {
+        List<String> nodeList = new ArrayList<String>();
+        nodeList.add("s");
+        nodeList.add("a");
+        nodeList.add("b");
+        nodeList.add("t");
+        List<Integer> nodeCosts = new ArrayList<Integer>();
+        for (int i = 0; i < 4; i++) nodeCosts.add(new Integer(0));
+        
+        // Two parallel edges into a chain s - a - b - t
+        List<List<String>> edgeList = new ArrayList<List<String>>();
+        edgeList.add(Arrays.asList("s","a","true","1","2"));
+        edgeList.add(Arrays.asList("s","a","true","2","3"));
+        edgeList.add(Arrays.asList("a","b","true","3","4"));
+        edgeList.add(Arrays.asList("b","t","true","4","10"));
+        Graph g = new Graph(nodeList, nodeCosts, true, edgeList);
+        
+        Network n = new Network(g,"s","t");
+        assertEquals(3,n.contract());
+        List<List<String>> flow = n.maxFlow().getEdgesAsStrings();
+        assertEquals(8,flow.size());
+        // Residuals of the original edges once 4 units pass through
+        assertEquals("0",flow.get(0).get(4));
+        assertEquals("1",flow.get(1).get(4));
+        assertEquals("0",flow.get(2).get(4));
+        assertEquals("6",flow.get(3).get(4));
+        // Residual twins carry the flow back
+        assertEquals("2",flow.get(4).get(4));
+        assertEquals("2",flow.get(5).get(4));
+        assertEquals("4",flow.get(6).get(4));
+        assertEquals("4",flow.get(7).get(4));
+        
+        List<String> cut = new ArrayList<String>();
+        cut.add("s");
+        cut.add("a");
+        assertEquals(new Integer(0),n.cutCapacity(cut));
+        
+        // One path per parallel edge
+        List<FlowPath> paths = new ArrayList<FlowPath>();
+        assertEquals(2,n.decomposeFlow(paths::add));
+        assertEquals(2,paths.get(0).amount());
+        assertEquals(Arrays.asList("2","3","4"),paths.get(1).edges());
+    }
+    
+    @Test
+    public void testDecomposeFlow() {
+        final List<FlowPath> paths = new ArrayList<FlowPath>();
+        n1.maxFlow();
+        assertEquals(1,n1.decomposeFlow(paths::add));
+        assertEquals(Arrays.asList("s","3","5","t"),paths.get(0).nodes());
+        assertEquals(Arrays.asList("3","10","5"),paths.get(0).edges());
+        assertEquals(1,paths.get(0).amount());
+        assertFalse(paths.get(0).isCycle());
+        
+        // Nothing flows before the solve
+        assertEquals(0,n3.decomposeFlow(paths::add));
+    }
+    
+    @Test
+    public void testUndirected() {
+        List<String> nodeList = new ArrayList<String>();
+        nodeList.add("s");
+        nodeList.add("a");
+        nodeList.add("b");
+        nodeList.add("t");
+        List<Integer> nodeCosts = new ArrayList<Integer>();
+        for (int i = 0; i < 4; i++) nodeCosts.add(new Integer(0));
+        
+        // The link between a and b is listed from b, but flow runs from a
+        List<List<String>> edgeList = new ArrayList<List<String>>();
+        edgeList.add(Arrays.asList("s","a","false","1","3"));
+        edgeList.add(Arrays.asList("b","a","false","2","2"));
+        edgeList.add(Arrays.asList("b","t","false","3","5"));
+        Graph g = new Graph(nodeList, nodeCosts, false, edgeList);
+        
+        Network n = new Network(g,"s","t");
+        List<List<String>> flow = n.maxFlow().getEdgesAsStrings();
+        assertEquals(6,flow.size());
+        assertEquals("1",flow.get(0).get(4));
+        assertEquals("4",flow.get(1).get(4));
+        assertEquals("3",flow.get(2).get(4));
+        // The twins share the capacity of their edges
+        assertEquals("5",flow.get(3).get(4));
+        assertEquals("0",flow.get(4).get(4));
+        assertEquals("7",flow.get(5).get(4));
+        
+        List<FlowPath> paths = new ArrayList<FlowPath>();
+        assertEquals(1,n.decomposeFlow(paths::add));
+        assertEquals(Arrays.asList("s","a","b","t"),paths.get(0).nodes());
+        assertEquals(2,paths.get(0).amount());
+    }
+    
+    @Test
+    public void testShortestPath() {
+        assertEquals(new Integer(8),n1.flowValue(n1.maxFlow(Network.Engine.SHORTEST_PATH)));
+        assertEquals(new Integer(2),n3.flowValue(n3.maxFlow(Network.Engine.SHORTEST_PATH)));
+        assertEquals(new Integer(0),n4.flowValue(n4.maxFlow(Network.Engine.SHORTEST_PATH)));
+        
+        // The residual reach of a maximum flow is a minimum cut
+        assertEquals(Arrays.asList("s","1","2"),n1.sourceSide());
+        assertEquals(Arrays.asList("s"),n4.sourceSide());
+        assertEquals(new Integer(0),n4.cutCapacity(n4.sourceSide()));
+    }
+    
+    @Test
+    public void testShortestPathWide() {
+        // Wide enough for the search to split levels and go bottom-up
+        int width = 3000;
+        List<String> nodeList = new ArrayList<String>();
+        List<Integer> nodeCosts = new ArrayList<Integer>();
+        List<List<String>> edgeList = new ArrayList<List<String>>();
+        nodeList.add("s");
+        nodeList.add("t");
+        for (int i = 0; i < width; i++) {
+            nodeList.add("m" + i);
+            edgeList.add(Arrays.asList("s","m" + i,"true","a" + i,"1"));
+            edgeList.add(Arrays.asList("m" + i,"t","true","b" + i,"" + (i % 2)));
+        }
+        for (int i = 0; i < nodeList.size(); i++) nodeCosts.add(new Integer(0));
+        Network n = new Network(new Graph(nodeList, nodeCosts, true, edgeList),"s","t");
+        
+        final int[] total = new int[1];
+        n.maxFlow(Network.Engine.SHORTEST_PATH);
+        n.decomposeFlow(p -> total[0] += p.amount());
+        assertEquals(width / 2,total[0]);
+        assertEquals(1 + width / 2,n.sourceSide().size());
+    }
+    
+    @Test
+    public void testPushRelabel() {
+        assertEquals(new Integer(8),n1.flowValue(n1.maxFlow(Network.Engine.PUSH_RELABEL)));
+        assertEquals(new Integer(2),n3.flowValue(n3.maxFlow(Network.Engine.PUSH_RELABEL)));
+        assertEquals(new Integer(0),n4.flowValue(n4.maxFlow(Network.Engine.PUSH_RELABEL)));
+        assertEquals(new Integer(0),n4.cutCapacity(n4.sourceSide()));
+    }
+    
+    @Test
+    public void testMaxFlowDistributed() throws Exception {
+        assertEquals(new Integer(2),n3.flowValue(n3.maxFlowDistributed(3)));
+        assertEquals(Arrays.asList("s","3"),n3.sourceSide());
+        
+        // A ladder whose regions must pass excess back and forth
+        Graph g = ladder(200);
+        
+        Network local = new Network(g,"s","t");
+        Network split = new Network(g,"s","t");
+        local.maxFlow(Network.Engine.SHORTEST_PATH);
+        final int[] total = new int[2];
+        split.maxFlowDistributed(4);
+        local.decomposeFlow(p -> total[0] += p.amount());
+        split.decomposeFlow(p -> total[1] += p.amount());
+        assertEquals(5,total[0]);
+        assertEquals(total[0],total[1]);
+        assertEquals(local.sourceSide(),split.sourceSide());
+    }
+    
+    @Test
+    public void testCheckpointResume() throws Exception {
+        File file = File.createTempFile("network", ".ckpt");
+        file.deleteOnExit();
+        Graph g = ladder(100);
+        Network.Engine[] engines = { Network.Engine.SHORTEST_PATH, Network.Engine.PUSH_RELABEL };
+        for (Network.Engine engine : engines) {
+            Graph expected = new Network(g,"s","t").maxFlow(engine);
+            assertEquals(expected,new Network(g,"s","t").maxFlow(engine,file.getPath(),0));
+            assertEquals(expected,new Network(g,"s","t").resume(file.getPath(),0));
+        }
+        
+        // A checkpoint only fits the network it was taken from
+        try {
+            n1.resume(file.getPath(),0);
+            fail("resumed from another network's checkpoint");
+        } catch (IOException ex) {
+        }
+        
+        // An engine number past the last engine is a bad file, not a crash
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer.wrap(bytes).putInt(8,99);
+        Files.write(file.toPath(),bytes);
+        try {
+            new Network(g,"s","t").resume(file.getPath(),0);
+            fail("resumed with no engine");
+        } catch (IOException ex) {
+        }
+    }
+    
+    @Test
+    public void testBoundedFlow() {
+        // Out of time before the first augmentation: the level cut after 1, 2 and 3 bounds the flow
+        BoundedFlow early = n3.maxFlow(0,null,0,null);
+        assertEquals(0,early.lowerBound());
+        assertEquals(3,early.upperBound());
+        assertFalse(early.isOptimal());
+        assertEquals(new Integer(4),n3.flowValue(early.flow()));
+        
+        CancelToken token = new CancelToken();
+        token.cancel();
+        assertEquals(3,new Network(g3,"s","t").maxFlow(Long.MAX_VALUE,token,0,null).upperBound());
+        
+        // Run to completion, reporting after every augmentation
+        final List<BoundedFlow> reports = new ArrayList<BoundedFlow>();
+        Network n = new Network(ladder(50),"s","t");
+        BoundedFlow done = n.maxFlow(Long.MAX_VALUE,new CancelToken(),0,reports::add);
+        assertTrue(done.isOptimal());
+        assertEquals(5,done.lowerBound());
+        assertFalse(reports.isEmpty());
+        for (BoundedFlow report : reports) {
+            assertTrue(report.lowerBound() <= 5 && report.upperBound() >= 5);
+        }
+    }
+    
+    @Test
+    public void testFlowService() throws Exception {
+        FlowService service = new FlowService(2,4,true,Network.Engine.SHORTEST_PATH);
+        List<CompletableFuture<Graph>> results = new ArrayList<CompletableFuture<Graph>>();
+        for (int i = 0; i < 10; i++) {
+            results.add(service.submit((i % 2 == 0) ? g3 : g4,"s",(i % 3 == 0) ? "t" : "5"));
+        }
+        service.close();
+        for (int i = 0; i < 10; i++) {
+            Network n = new Network((i % 2 == 0) ? g3 : g4,"s",(i % 3 == 0) ? "t" : "5");
+            assertEquals(n.maxFlow(Network.Engine.SHORTEST_PATH),results.get(i).get());
+        }
+        assertTrue(service.batches() <= 10);
+        
+        // Requests on one graph that wait behind a busy executor run as one batch
+        final CountDownLatch busy = new CountDownLatch(1);
+        ExecutorService one = Executors.newSingleThreadExecutor();
+        one.execute(new Runnable() {
+            public void run() {
+                try {
+                    busy.await();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        service = new FlowService(one,8,Network.Engine.SHORTEST_PATH,Long.MAX_VALUE,FlowService.Admission.QUEUE);
+        results.clear();
+        for (int i = 0; i < 6; i++) {
+            results.add(service.submit(g4,"s",(i % 2 == 0) ? "t" : "5"));
+        }
+        busy.countDown();
+        service.close();
+        for (int i = 0; i < 6; i++) {
+            assertEquals(new Network(g4,"s",(i % 2 == 0) ? "t" : "5").maxFlow(Network.Engine.SHORTEST_PATH),results.get(i).get());
+        }
+        assertEquals(1,service.batches());
+        
+        // Requests after close fail without holding a permit or memory
+        service = new FlowService(1,1,false,Network.Engine.SHORTEST_PATH,Long.MAX_VALUE,FlowService.Admission.QUEUE);
+        service.close();
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.submit(g4,"s","t").get();
+                fail("submitted after close");
+            }
+            catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertEquals(0,service.reserved());
+        
+        // The same when the executor refuses the batch
+        one = Executors.newSingleThreadExecutor();
+        one.shutdown();
+        service = new FlowService(one,1,Network.Engine.SHORTEST_PATH,1L << 40,FlowService.Admission.QUEUE);
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.submit(g4,"s","t").get();
+                fail("the executor is shut down");
+            }
+            catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertEquals(0,service.reserved());
+        
+        // A copied network solves like one read from the graph
+        assertEquals(new Network(g1,"s","5").maxFlow(),new Network(n1,"s","5").maxFlow());
+    }
+    
+    @Test
+    public void testFlowServiceError() throws Exception {
+        // An Error fails the rest of its batch and still frees what they held
+        final CountDownLatch busy = new CountDownLatch(1);
+        final List<Throwable> uncaught = Collections.synchronizedList(new ArrayList<Throwable>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        ExecutorService one = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                threads.add(thread);
+                thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                    public void uncaughtException(Thread t, Throwable ex) {
+                        uncaught.add(ex);
+                    }
+                });
+                return thread;
+            }
+        });
+        one.execute(new Runnable() {
+            public void run() {
+                try {
+                    busy.await();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final StackOverflowError error = new StackOverflowError();
+        final AtomicInteger solves = new AtomicInteger();
+        FlowService service = new FlowService(one,3,Network.Engine.SHORTEST_PATH,1L << 40,FlowService.Admission.QUEUE) {
+            Graph solve(Network n, SolverWorkspace workspace) {
+                if (solves.incrementAndGet() == 2) throw error;
+                return super.solve(n, workspace);
+            }
+        };
+        List<CompletableFuture<Graph>> results = new ArrayList<CompletableFuture<Graph>>();
+        for (int i = 0; i < 3; i++) {
+            results.add(service.submit(g4,"s","t"));
+        }
+        busy.countDown();
+        assertEquals(new Network(g4,"s","t").maxFlow(Network.Engine.SHORTEST_PATH),results.get(0).get());
+        for (int i = 1; i < 3; i++) {
+            try {
+                results.get(i).get(10,TimeUnit.SECONDS);
+                fail("failed with the batch");
+            }
+            catch (ExecutionException ex) {
+                assertSame(error,ex.getCause());
+            }
+        }
+        assertEquals(2,solves.get());
+        
+        // Every permit is back, and the pool still runs batches
+        results.clear();
+        for (int i = 0; i < 3; i++) {
+            results.add(service.submit(g4,"s","5"));
+        }
+        service.close();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new Network(g4,"s","5").maxFlow(Network.Engine.SHORTEST_PATH),results.get(i).get());
+        }
+        assertEquals(0,service.reserved());
+        for (Thread thread : new ArrayList<Thread>(threads)) thread.join();
+        assertEquals(Arrays.<Throwable>asList(error),uncaught);
+    }
+    
+    @Test
+    public void testFlowCache() {
+        // Equal content, different objects
+        Graph copy = new Graph(g3.getNodeNamesAsStrings(),Arrays.asList(0,0,0,0,0,0,0,0),true,g3.getEdgesAsStrings());
+        assertEquals(g3.fingerprint(),copy.fingerprint());
+        assertFalse(g3.fingerprint().equals(g4.fingerprint()));
+        
+        FlowCache cache = new FlowCache(1 << 20,Network.Engine.SHORTEST_PATH);
+        FlowCache.Entry first = cache.get(g3,"s","t");
+        assertSame(first,cache.get(copy,"s","t"));
+        assertEquals(new Integer(2),first.value());
+        assertEquals(Arrays.asList("s","3"),first.cut());
+        try {
+            first.cut().add("t");
+            fail("changed a cached cut");
+        }
+        catch (UnsupportedOperationException ex) {
+        }
+        cache.get(g3,"s","5");
+        assertEquals(1,cache.hits());
+        assertEquals(2,cache.misses());
+        
+        // Room for one entry only: the least recently used goes
+        FlowCache small = new FlowCache(first.weight(),Network.Engine.SHORTEST_PATH);
+        small.get(g3,"s","t");
+        small.get(g4,"s","t");
+        assertEquals(1,small.size());
+        assertEquals(1,small.evictions());
+        small.get(g4,"s","t");
+        assertEquals(1,small.hits());
+    }
+    
+    @Test
+    public void testGraphBuilder() {
+        Graph.Builder builder = new Graph.Builder(true);
+        for (String node : g3.getNodeNamesAsStrings()) {
+            builder.node(node, 0);
+        }
+        for (List<String> edge : g3.getEdgesAsStrings()) {
+            builder.edge(edge.get(0),edge.get(1),true,edge.get(3),Integer.parseInt(edge.get(4)));
+        }
+        Graph built = builder.build();
+        assertEquals(g3,built);
+        assertEquals(g3.fingerprint(),built.fingerprint());
+        assertEquals(new Integer(3),new Network(built,"s","t").flowValue(new Network(built,"s","t").maxFlow()));
+        
+        // Nodes named by edges are added on the way
+        builder = new Graph.Builder(false);
+        int a = builder.node("a", 2);
+        builder.edge(a,builder.node("b"),false,null,7);
+        builder.edge("b","c",false,"bc",1);
+        Graph g = builder.build();
+        assertEquals(3,g.nodeCount());
+        assertEquals(Arrays.asList("a","2"),g.getNodesAsStrings().get(0));
+        assertEquals(Arrays.asList("a","b","false","null","7"),g.getEdgesAsStrings().get(0));
+        try {
+            builder.node("d");
+            fail("builder used after build");
+        } catch (IllegalStateException ex) {
+        }
+    }
+    
+    @Test
+    public void testAdjacency() {
+        int s = g1.nodeId("s");
+        assertEquals(0,s);
+        assertEquals(-1,g1.nodeId("x"));
+        assertEquals("4",g1.nodeLabel(g1.nodeId("4")));
+        assertEquals(3,g1.outDegree(s));
+        assertEquals(0,g1.inDegree(s));
+        assertEquals(3,g1.inDegree("t"));
+        assertEquals(0,g1.outDegree("x"));
+        Set<String> out = new HashSet<String>();
+        for (int k = 0; k < g1.outDegree(s); k++) {
+            out.add(g1.nodeLabel(g1.outNeighbor(s,k)));
+            assertEquals("s",g1.getEdgesAsStrings().get(g1.outEdge(s,k)).get(0));
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("1","2","3")),out);
+        int t = g1.nodeId("t");
+        for (int k = 0; k < g1.inDegree(t); k++) {
+            List<String> edge = g1.getEdgesAsStrings().get(g1.inEdge(t,k));
+            assertEquals("t",edge.get(1));
+            assertEquals(edge.get(0),g1.nodeLabel(g1.inNeighbor(t,k)));
+        }
+        
+        // Undirected edges run both ways
+        Graph.Builder builder = new Graph.Builder(false);
+        builder.edge("a","b",false,null,1);
+        builder.edge("b","b",false,null,1);
+        Graph g = builder.build();
+        assertEquals(1,g.outDegree("a"));
+        assertEquals(1,g.inDegree("a"));
+        assertEquals(2,g.outDegree("b"));
+        assertEquals(2,g.inDegree("b"));
+        
+        // Repeated labels find the first node, and every label is found
+        Graph repeated = new Graph(Arrays.asList("a","b","a"),Arrays.asList(0,0,0),true,new ArrayList<List<String>>());
+        assertEquals(0,repeated.nodeId("a"));
+        assertEquals(1,repeated.nodeId("b"));
+        Graph.Builder many = new Graph.Builder(true);
+        for (int i = 0; i < 1000; i++) many.node("v" + i,0);
+        Graph wide = many.build();
+        for (int i = 0; i < 1000; i++) assertEquals(i,wide.nodeId("v" + i));
+        assertEquals(-1,wide.nodeId("v1000"));
+    }
+    
+    @Test
+    public void testGraphEncoding() throws IOException {
+        File file = File.createTempFile("graph", ".ser");
+        file.deleteOnExit();
+        g4.saveGraph(file.getPath());
+        Graph restored = new Graph();
+        restored.restoreGraph(file.getPath());
+        assertEquals(g4,restored);
+        assertEquals(g4.hashCode(),restored.hashCode());
+        assertEquals(g4.toString(),restored.toString());
+        assertEquals(g4.getEdgesAsStrings(),restored.getEdgesAsStrings());
+        assertEquals(g4.fingerprint(),restored.fingerprint());
+        assertFalse(g3.equals(g4));
+        
+        // Compatibility view of a simple graph, whose edges name a node not in the graph
+        List<List<String>> edges = new ArrayList<List<String>>();
+        edges.add(Arrays.asList("a","b"));
+        edges.add(Arrays.asList("b","c"));
+        Graph simple = new Graph(Arrays.asList("a","b"),edges,true);
+        assertEquals(Arrays.asList("b","c","false","null","null"),simple.getEdgesAsStrings().get(1));
+        assertEquals("GRAPH: Undirected\n Nodes([a, b])\n Edges([<a,b,false,null,null>, <b,c,false,null,null>])",simple.toString());
+        assertEquals(1,simple.outDegree("b"));
+    }
+    
+    @Test
+    public void testCompressTopology() {
+        Random random = new Random(39);
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i < 500) ? i / 3 + random.nextInt(8) : random.nextInt();
+        }
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+        PackedInts packed = new PackedInts(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i],packed.get(i));
+        }
+        int[] near = new int[1024];
+        for (int i = 0; i < near.length; i++) {
+            near[i] = 100000 + i;
+        }
+        assertTrue(new PackedInts(near).bytes() < 4 * near.length / 2);
+        PackedInts prefix = new PackedInts(values,100);
+        assertEquals(100,prefix.length());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(values[i],prefix.get(i));
+        }
+        
+        // Packed while built, or packed after building renumbered
+        for (Network.Engine engine : new Network.Engine[] { Network.Engine.SHORTEST_PATH, Network.Engine.PUSH_RELABEL }) {
+            for (Network.Ordering ordering : new Network.Ordering[] { Network.Ordering.INPUT, Network.Ordering.BFS }) {
+                Network plain = new Network(g3,"s","t");
+                Network n = new Network(g3,"s","t");
+                n.compressTopology();
+                n.reorder(ordering);
+                assertEquals(plain.maxFlow(engine),n.maxFlow(engine));
+                assertEquals(plain.sourceSide(),n.sourceSide());
+            }
+        }
+        
+        Graph g = ladder(50);
+        int id = g.nodeId("s");
+        List<Integer> before = new ArrayList<Integer>();
+        for (int k = 0; k < g.outDegree(id); k++) {
+            before.add(g.outNeighbor(id,k));
+        }
+        g.compressAdjacency();
+        List<Integer> after = new ArrayList<Integer>();
+        for (int k = 0; k < g.outDegree(id); k++) {
+            after.add(g.outNeighbor(id,k));
+        }
+        assertEquals(before,after);
+    }
+    
+    @Test
+    public void testReorder() {
+        Graph ladder = ladder(40);
+        // The same ladder with its nodes listed in scrambled order
+        List<String> nodes = ladder.getNodeNamesAsStrings();
+        Collections.shuffle(nodes,new Random(40));
+        List<Integer> costs = new ArrayList<Integer>(Collections.nCopies(nodes.size(),0));
+        Graph scrambled = new Graph(nodes,costs,true,ladder.getEdgesAsStrings());
+        for (Graph g : new Graph[] { g3, g4, scrambled }) {
+            for (Network.Engine engine : new Network.Engine[] { Network.Engine.SHORTEST_PATH, Network.Engine.PUSH_RELABEL }) {
+                Network plain = new Network(g,"s","t");
+                Graph expected = plain.maxFlow(engine);
+                for (Network.Ordering ordering : Network.Ordering.values()) {
+                    Network n = new Network(g,"s","t");
+                    n.reorder(ordering);
+                    Graph flow = n.maxFlow(engine);
+                    assertEquals(plain.flowValue(expected),n.flowValue(flow));
+                    assertEquals(plain.sourceSide(),n.sourceSide());
+                }
+            }
+        }
+        Network input = new Network(scrambled,"s","t");
+        Network ordered = new Network(scrambled,"s","t");
+        ordered.reorder(Network.Ordering.REVERSE_CUTHILL_MCKEE);
+        assertTrue(ordered.arcSpan() < input.arcSpan() / 4);
+        ordered.reorder(Network.Ordering.BFS);
+        assertTrue(ordered.arcSpan() < input.arcSpan() / 4);
+    }
+    
+    @Test
+    public void testMatching() {
+        // Worker i can do jobs i and i + 1; worker 0 can also do job 4
+        Graph.Builder builder = new Graph.Builder(true);
+        for (int i = 0; i < 5; i++) {
+            builder.edge("s","w" + i,true,null,1);
+            builder.edge("j" + i,"t",true,null,1);
+            builder.edge("w" + i,"j" + i,true,null,1);
+            if (i < 4) builder.edge("w" + i,"j" + (i + 1),true,null,1);
+        }
+        builder.edge("w0","j4",true,null,1);
+        builder.edge("w5","j0",true,null,1);
+        builder.edge("s","w5",true,null,1);
+        Graph g = builder.build();
+        Network n = new Network(g,"s","t");
+        assertTrue(n.isBipartiteMatching());
+        Graph flow = n.maxFlow(Network.Engine.MATCHING);
+        // Six workers, five jobs: one source edge keeps its residual
+        assertEquals(new Integer(1),n.flowValue(flow));
+        int matched = 0;
+        Set<String> workers = new HashSet<String>();
+        Set<String> jobs = new HashSet<String>();
+        for (List<String> edge : flow.getEdgesAsStrings()) {
+            if (edge.get(0).startsWith("w") && edge.get(1).startsWith("j") && edge.get(4).equals("0")) {
+                matched++;
+                assertTrue(workers.add(edge.get(0)));
+                assertTrue(jobs.add(edge.get(1)));
+            }
+        }
+        assertEquals(5,matched);
+        
+        // Shortest paths and push-relabel find matching problems themselves
+        Network auto = new Network(g,"s","t");
+        assertEquals(flow,auto.maxFlow(Network.Engine.SHORTEST_PATH));
+        
+        assertFalse(new Network(g3,"s","t").isBipartiteMatching());
+        try {
+            new Network(g3,"s","t").maxFlow(Network.Engine.MATCHING);
+            fail("g3 is not a matching problem");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+    
+    @Test
+    public void testDisjointPaths() {
+        DisjointPaths d = new Network(g1,"s","t").disjointPaths();
+        // Only s-3-5-t gets through, so the edge from s to 3 separates
+        assertEquals(1,d.count());
+        assertEquals(Arrays.asList(2),d.separatingEdges());
+        assertEquals(Arrays.asList("s","3","5","t"),d.paths().get(0).nodes());
+        Set<String> used = new HashSet<String>();
+        for (FlowPath p : d.paths()) {
+            assertEquals("s",p.nodes().get(0));
+            assertEquals("t",p.nodes().get(p.nodes().size() - 1));
+            assertEquals(1,p.amount());
+            for (String label : p.edges()) {
+                assertTrue(used.add(label));
+            }
+        }
+        
+        // Removing the separating edges disconnects the sink
+        List<List<String>> kept = new ArrayList<List<String>>(g1.getEdgesAsStrings());
+        List<Integer> cut = new ArrayList<Integer>(d.separatingEdges());
+        Collections.sort(cut,Collections.reverseOrder());
+        for (int e : cut) {
+            kept.remove(e);
+        }
+        List<Integer> costs = new ArrayList<Integer>(Collections.nCopies(g1.nodeCount(),0));
+        Graph rest = new Graph(g1.getNodeNamesAsStrings(),costs,true,kept);
+        assertEquals(0,new Network(rest,"s","t").disjointPaths().count());
+        
+        // A limit stops the search early, without a cut
+        DisjointPaths one = new Network(g1,"s","t").disjointPaths(1);
+        assertEquals(1,one.count());
+        assertTrue(one.separatingEdges().isEmpty());
+        
+        // Undirected ladder: two rails, so two disjoint paths
+        Graph.Builder builder = new Graph.Builder(false);
+        for (int i = 0; i < 10; i++) {
+            builder.edge("a" + i,"a" + (i + 1),false,"a" + i,5);
+            builder.edge("b" + i,"b" + (i + 1),false,"b" + i,5);
+            builder.edge("a" + i,"b" + i,false,"r" + i,5);
+        }
+        builder.edge("s","a0",false,"sa",5);
+        builder.edge("s","b0",false,"sb",5);
+        builder.edge("a10","t",false,"at",5);
+        builder.edge("b10","t",false,"bt",5);
+        builder.edge("s","b5",false,"sb5",5);
+        DisjointPaths rails = new Network(builder.build(),"s","t").disjointPaths();
+        assertEquals(2,rails.count());
+        assertEquals(2,rails.separatingEdges().size());
+        
+        // No paths run from a vertex to itself
+        try {
+            new Network(g1,"s","s").disjointPaths(3);
+            fail("source is the sink");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+    
+    @Test
+    public void testGlobalMinCut() {
+        // Two heavy triangles joined by one light edge
+        Graph.Builder builder = new Graph.Builder(false);
+        builder.edge("a","b",false,"ab",3);
+        builder.edge("b","c",false,"bc",3);
+        builder.edge("c","a",false,"ca",3);
+        builder.edge("d","e",false,"de",3);
+        builder.edge("e","f",false,"ef",3);
+        builder.edge("f","d",false,"fd",3);
+        builder.edge("c","d",true,"cd",2);
+        Graph g = builder.build();
+        GlobalMinCut exact = GlobalMinCut.stoerWagner(g);
+        assertEquals(2,exact.value());
+        Set<String> side = new HashSet<String>(exact.side());
+        assertTrue(side.equals(new HashSet<String>(Arrays.asList("a","b","c")))
+            || side.equals(new HashSet<String>(Arrays.asList("d","e","f"))));
+        assertEquals(6,exact.side().size() + exact.otherSide().size());
+        assertEquals(2,GlobalMinCut.kargerStein(g,10,1L).value());
+
+        // Randomized contraction agrees with the exact answer
+        Graph rungs = ladder(12);
+        long value = GlobalMinCut.stoerWagner(rungs).value();
+        assertEquals(value,GlobalMinCut.kargerStein(rungs,40,7L).value());
+
+        // A disconnected graph has a cut of weight 0
+        builder = new Graph.Builder(false);
+        builder.edge("a","b",false,"ab",3);
+        builder.edge("c","d",false,"cd",3);
+        assertEquals(0,GlobalMinCut.stoerWagner(builder.build()).value());
+    }
+    
+    @Test
+    public void testParametricFlow() {
+        // Two source edges that grow with lambda, each meeting a fixed sink edge
+        Graph.Builder builder = new Graph.Builder(true);
+        builder.edge("s","a",true,"sa",0);
+        builder.edge("a","t",true,"at",4);
+        builder.edge("s","b",true,"sb",0);
+        builder.edge("b","t",true,"bt",6);
+        Network n = new Network(builder.build(),"s","t");
+        ParametricFlow p = n.parametricFlow(new int[] { 1, 0, 2, 0 },0,10);
+        assertEquals(Arrays.asList(3.0,4.0),p.breakpoints());
+        assertEquals(Arrays.asList("s"),p.sourceSide(2));
+        assertEquals(Arrays.asList("s","b"),p.sourceSide(3.5));
+        assertEquals(Arrays.asList("s","a","b"),p.sourceSide(8));
+        assertEquals(6.0,p.cutValue(2),0.0);
+        assertEquals(9.5,p.cutValue(3.5),0.0);
+        assertEquals(10.0,p.cutValue(8),0.0);
+
+        // Slopes are only allowed at the source and the sink
+        try {
+            n.parametricFlow(new int[] { 0, 1, 0, 0 },0,10);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // Layers the flow must cross: starting each solve from the last
+        // preflow finds the same cuts with fewer pushes, and bisection
+        // needs at most two solves per breakpoint and two for the ends
+        Random random = new Random(3);
+        int width = 12;
+        int layers = 10;
+        List<int[]> edges = new ArrayList<int[]>();
+        for (int i = 0; i < width; i++) {
+            edges.add(new int[] { 0, 2 + i, 1 + random.nextInt(20), 1 + random.nextInt(5) });
+            edges.add(new int[] { 2 + (layers - 1) * width + i, 1, 1 + random.nextInt(200), 0 });
+        }
+        for (int l = 0; l + 1 < layers; l++) {
+            for (int i = 0; i < width; i++) {
+                for (int k = 0; k < 3; k++) {
+                    edges.add(new int[] { 2 + l * width + i, 2 + (l + 1) * width + random.nextInt(width), 5 + random.nextInt(60), 0 });
+                }
+            }
+        }
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        boolean[] directed = new boolean[edges.size()];
+        long[] constant = new long[edges.size()];
+        long[] slope = new long[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            from[e] = edges.get(e)[0];
+            to[e] = edges.get(e)[1];
+            directed[e] = true;
+            constant[e] = edges.get(e)[2];
+            slope[e] = edges.get(e)[3];
+        }
+        Parametric warm = new Parametric(2 + layers * width,from,to,directed,constant,slope,0,1,true);
+        Parametric cold = new Parametric(2 + layers * width,from,to,directed,constant,slope,0,1,false);
+        warm.solve(0,200);
+        cold.solve(0,200);
+        int count = cold.breakpoints().size();
+        assertTrue(count > 1);
+        assertEquals(count,warm.breakpoints().size());
+        for (int i = 0; i < count; i++) {
+            assertArrayEquals(cold.breakpoints().get(i),warm.breakpoints().get(i));
+        }
+        for (int i = 0; i <= count; i++) {
+            assertArrayEquals(cold.side(i),warm.side(i));
+            assertEquals(cold.constant(i),warm.constant(i));
+            assertEquals(cold.slope(i),warm.slope(i));
+        }
+        assertEquals(cold.solves(),warm.solves());
+        assertTrue(warm.solves() <= 2 * count + 2);
+        assertTrue(warm.pushes() < cold.pushes());
+    }
+    
+    @Test
+    public void testEdgeSensitivity() {
+        // Each path is limited by one edge
+        Graph.Builder builder = new Graph.Builder(true);
+        builder.edge("s","a",true,"sa",3);
+        builder.edge("a","t",true,"at",5);
+        builder.edge("s","b",true,"sb",4);
+        builder.edge("b","t",true,"bt",2);
+        Network n = new Network(builder.build(),"s","t");
+        n.maxFlow(Network.Engine.PUSH_RELABEL);
+        EdgeSensitivity s = n.edgeSensitivity();
+        assertEquals(Arrays.asList(0,3),s.bottlenecks());
+        assertEquals(Arrays.asList(0,3),s.sensitiveEdges());
+
+        // Two equal edges in series: each is in a minimum cut, neither in all
+        builder = new Graph.Builder(true);
+        builder.edge("s","a",true,"sa",2);
+        builder.edge("a","t",true,"at",2);
+        n = new Network(builder.build(),"s","t");
+        n.maxFlow(Network.Engine.SHORTEST_PATH);
+        s = n.edgeSensitivity();
+        assertTrue(s.bottlenecks().isEmpty());
+        assertEquals(Arrays.asList(0,1),s.sensitiveEdges());
+        assertEquals(2,s.size());
+    }
+    
+    @Test
+    public void testFlowFiles() throws IOException {
+        // CSV keeps every edge, including labels that hold commas
+        File csv = File.createTempFile("graph", ".csv");
+        csv.deleteOnExit();
+        Graph.Builder builder = new Graph.Builder(true);
+        builder.edge("s","a",true,"first, second",3);
+        builder.edge("a","t",false,null,2);
+        Graph g = builder.build();
+        FlowFiles.writeCsv(g,csv.getPath());
+        assertEquals(g.getEdgesAsStrings(),FlowFiles.readCsv(csv.getPath(),true).getEdgesAsStrings());
+        FlowFiles.writeCsv(g4,csv.getPath());
+        assertEquals(g4.getEdgesAsStrings(),FlowFiles.readCsv(csv.getPath(),true).getEdgesAsStrings());
+        
+        // The same problem read back from DIMACS has the same flow value
+        File dimacs = File.createTempFile("graph", ".max");
+        dimacs.deleteOnExit();
+        FlowFiles.writeDimacs(g4,"s","t",dimacs.getPath());
+        Network read = FlowFiles.readDimacs(dimacs.getPath());
+        read.maxFlow(Network.Engine.PUSH_RELABEL);
+        n4.maxFlow(Network.Engine.PUSH_RELABEL);
+        File flow = File.createTempFile("flow", ".sol");
+        flow.deleteOnExit();
+        n4.writeFlow(flow.getPath());
+        List<String> lines = Files.readAllLines(flow.toPath());
+        assertEquals(g4.edgeCount() + 1,lines.size());
+        read.writeFlow(flow.getPath());
+        assertEquals(lines.get(0),Files.readAllLines(flow.toPath()).get(0));
+        n4.writeMinCut(flow.getPath());
+        assertEquals(n4.sourceSide(),Files.readAllLines(flow.toPath()));
+        
+        // Anything after the last field, or a negative capacity, is an error
+        String[][] bad = {
+            { "a,b,5abc\n", "a,b,5\nb,c,3 junk,maybe\n" },
+            { "p max 2 1\nn 1 s\nn 2 t\na 1 2 4 extra\n", "p max 2 1\nn 1 s\nn 2 t\na 1 2 -4\n", "p max 2 1\nn 1 sx\nn 2 t\n" }
+        };
+        for (int kind = 0; kind < 2; kind++) {
+            for (String text : bad[kind]) {
+                Files.write(csv.toPath(),text.getBytes("UTF-8"));
+                try {
+                    if (kind == 0) FlowFiles.readCsv(csv.getPath(),true);
+                    else FlowFiles.readDimacs(csv.getPath());
+                    fail("read " + text);
+                }
+                catch (IOException ex) {
+                }
+            }
+        }
+        Files.write(csv.toPath(),"a , b , 5 , false , x, y \r\n\n# note\n".getBytes("UTF-8"));
+        assertEquals(Arrays.asList(Arrays.asList("a","b","false","x, y","5")),FlowFiles.readCsv(csv.getPath(),true).getEdgesAsStrings());
+        
+        // Labels that would not read back, and a source that is not a node
+        builder = new Graph.Builder(true);
+        builder.edge("x,y","z",true,"l",3);
+        try {
+            FlowFiles.writeCsv(builder.build(),csv.getPath());
+            fail("wrote a node label with a comma");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+        try {
+            FlowFiles.writeDimacs(g4,"nowhere","t",dimacs.getPath());
+            fail("wrote a source that is not a node");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+    
+    @Test
+    public void testVerify() {
+        // No flow yet: feasible, but only optimal against a cut of capacity 0
+        FlowCertificate c = n4.verify(Arrays.asList("s"));
+        assertTrue(c.isValid());
+        assertEquals(0,c.value());
+        assertFalse(c.isOptimal());
+        
+        n4.maxFlow(Network.Engine.PUSH_RELABEL);
+        c = n4.verify();
+        assertTrue(c.isOptimal());
+        assertTrue(c.value() > 0);
+        assertEquals(c.value(),c.cutCapacity());
+        assertEquals(c.value(),n4.verify(Arrays.asList("s")).value());
+        
+        // A cut holding the sink is no cut at all
+        List<String> all = new ArrayList<String>(g4.getNodeNamesAsStrings());
+        c = n4.verify(all);
+        assertFalse(c.isValid());
+        assertTrue(c.problem().contains("sink"));
+        
+        // The same graph solved another way has the same certified value
+        Network other = new Network(g4,"s","t");
+        other.contract();
+        other.maxFlow(Network.Engine.SHORTEST_PATH);
+        assertEquals(n4.verify().value(),other.verify().value());
+    }
+    
+    @Test
+    public void testMemoryAdmission() throws Exception {
+        MemoryEstimate small = new MemoryEstimate(1000,10000,Network.Engine.PUSH_RELABEL,false);
+        MemoryEstimate large = new MemoryEstimate(1000,20000,Network.Engine.PUSH_RELABEL,false);
+        MemoryEstimate packed = new MemoryEstimate(1000,10000,Network.Engine.PUSH_RELABEL,true);
+        assertTrue(small.peak() < large.peak());
+        assertTrue(packed.peak() < small.peak());
+        assertEquals(small.network() + small.residuals() + Math.max(small.solver(),small.flowGraph()),small.peak());
+        
+        // Too big for the budget under any policy
+        FlowService service = new FlowService(1,4,false,Network.Engine.PUSH_RELABEL,1000,FlowService.Admission.QUEUE);
+        try {
+            service.submit(g4,"s","t").get();
+            fail();
+        }
+        catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+        service.close();
+        
+        // Room for the compressed form only
+        MemoryEstimate lean = new MemoryEstimate(g4,Network.Engine.PUSH_RELABEL,true);
+        Graph expected = new Network(g4,"s","t").maxFlow(Network.Engine.PUSH_RELABEL);
+        service = new FlowService(1,4,false,Network.Engine.PUSH_RELABEL,lean.peak() + lean.network(),FlowService.Admission.COMPRESS);
+        assertEquals(expected,service.submit(g4,"s","t").get());
+        service.close();
+        
+        // Room for one solve at a time: the rest wait their turn
+        MemoryEstimate plain = new MemoryEstimate(g4,Network.Engine.PUSH_RELABEL,false);
+        service = new FlowService(2,8,false,Network.Engine.PUSH_RELABEL,plain.peak() + plain.network(),FlowService.Admission.QUEUE);
+        List<CompletableFuture<Graph>> results = new ArrayList<CompletableFuture<Graph>>();
+        for (int i = 0; i < 6; i++) {
+            results.add(service.submit(g4,"s","t"));
+        }
+        service.close();
+        for (CompletableFuture<Graph> result : results) {
+            assertEquals(expected,result.get());
+        }
+        assertEquals(0,service.reserved());
+    }
+    
+    @Test
+    public void testSolverWorkspace() {
+        SolverWorkspace workspace = new SolverWorkspace();
+        for (Network.Engine engine : new Network.Engine[] { Network.Engine.SHORTEST_PATH, Network.Engine.PUSH_RELABEL }) {
+            // One workspace across graphs of different sizes, larger last
+            for (Graph g : new Graph[] { g4, g3, ladder(40), g4 }) {
+                Network plain = new Network(g,"s","t");
+                Network reused = new Network(g,"s","t");
+                assertEquals(plain.maxFlow(engine),reused.maxFlow(engine,workspace));
+                assertEquals(plain.verify().value(),Network.maxFlowValue(g,"s","t",engine,workspace));
+                assertEquals(plain.verify().value(),Network.maxFlowValue(g,"s","t",engine,null));
+            }
+        }
+        assertTrue(workspace.bytes() > 0);
+        for (Network.Engine engine : new Network.Engine[] { Network.Engine.CLASSIC, Network.Engine.MATCHING }) {
+            try {
+                Network.maxFlowValue(g3,"s","t",engine,workspace);
+                fail(engine + " has no array form");
+            }
+            catch (IllegalArgumentException ex) {
+            }
+        }
+    }
+    
+    @Test
+    public void testScans() {
+        Scans scalar = Scans.scalar();
+        assertFalse(scalar.isVector());
+        // Only the ignored positions hold excess
+        assertFalse(scalar.anyPositive(new int[] { 0, 5, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 7 },0,18,1,17));
+        assertTrue(scalar.anyPositive(new int[] { 0, 5, 0, 2 },0,4,1,0));
+        assertFalse(scalar.anyPositive(new int[] { 0, 5, 0, 2 },0,3,1,0));
+        // Reaches the sink, only the source, neither
+        int[] label = new int[3];
+        scalar.labels(label,new int[] { 2, -1, -1 },new int[] { 5, 1, -1 },0,3,3);
+        assertArrayEquals(new int[] { 2, 4, 6 },label);
+        // Flow out of 0, into 0, and a loop at 0 that does not count
+        int[] tail = { 0, 1, 0, 2 };
+        int[] head = { 1, 0, 0, 1 };
+        int[] flow = { Integer.MAX_VALUE, 3, 9, 4 };
+        assertEquals(Integer.MAX_VALUE - 3L,scalar.netFlow(tail,head,flow,0,4,0));
+        assertEquals(3 - (long)Integer.MAX_VALUE - 4,scalar.netFlow(tail,head,flow,0,4,1));
+        assertEquals(-3,scalar.netFlow(tail,head,flow,1,4,0));
+    }
+    
+    @Test
+    public void testVectorScans() {
+        // Skipped, not passed, unless VectorScans is built and the vector
+        // module added as its doc comment shows
+        Scans vector = Scans.vector();
+        Assume.assumeNotNull(vector);
+        assertTrue(vector.isVector());
+        Scans scalar = Scans.scalar();
+        Random random = new Random(41);
+        for (int n = 0; n < 70; n++) {
+            int[] excess = new int[n];
+            int[] toSink = new int[n];
+            int[] toSource = new int[n];
+            int[] tail = new int[n];
+            int[] head = new int[n];
+            int[] flow = new int[n];
+            for (int i = 0; i < n; i++) {
+                excess[i] = (random.nextInt(8) == 0) ? random.nextInt(5) - 2 : 0;
+                toSink[i] = random.nextInt(6) - 2;
+                toSource[i] = random.nextInt(6) - 2;
+                tail[i] = random.nextInt(4);
+                head[i] = random.nextInt(4);
+                flow[i] = (random.nextInt(3) == 0) ? Integer.MAX_VALUE - random.nextInt(3) : random.nextInt(100) - 50;
+            }
+            for (int skip = 0; skip < Math.min(n, 3); skip++) {
+                assertEquals(scalar.anyPositive(excess,0,n,skip,n - 1),vector.anyPositive(excess,0,n,skip,n - 1));
+            }
+            int[] expected = new int[n];
+            int[] label = new int[n];
+            scalar.labels(expected,toSink,toSource,0,n,n);
+            vector.labels(label,toSink,toSource,0,n,n);
+            assertArrayEquals(expected,label);
+            for (int s = 0; s < 4; s++) {
+                assertEquals(scalar.netFlow(tail,head,flow,0,n,s),vector.netFlow(tail,head,flow,0,n,s));
+                assertEquals(scalar.netFlow(tail,head,flow,n / 3,n,s),vector.netFlow(tail,head,flow,n / 3,n,s));
+            }
+        }
+        // Only the ignored positions hold excess
+        assertFalse(vector.anyPositive(new int[] { 0, 5, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 7 },0,18,1,17));
+    }
+
+    /**
+     * Build a ladder: two directed rails joined by undirected rungs of
+     * varying capacity, entered at the top of one rail and left at the
+     * bottom of the other
+     * @param rungs the number of rungs
+     * @return the graph
+     */
+    
+    private Graph ladder(int rungs) {
+        List<String> nodeList = new ArrayList<String>();
+        List<Integer> nodeCosts = new ArrayList<Integer>();
+        List<List<String>> edgeList = new ArrayList<List<String>>();
+        nodeList.add("s");
+        nodeList.add("t");
+        for (int i = 0; i < rungs; i++) {
+            nodeList.add("a" + i);
+            nodeList.add("b" + i);
+            edgeList.add(Arrays.asList("a" + i,"b" + i,"false","r" + i,"" + (1 + i % 3)));
+            if (i > 0) {
+                edgeList.add(Arrays.asList("a" + (i - 1),"a" + i,"true","x" + i,"4"));
+                edgeList.add(Arrays.asList("b" + (i - 1),"b" + i,"true","y" + i,"4"));
+            }
+        }
+        edgeList.add(Arrays.asList("s","a0","true","in","5"));
+        edgeList.add(Arrays.asList("b" + (rungs - 1),"t","true","out","6"));
+        for (int i = 0; i < nodeList.size(); i++) nodeCosts.add(new Integer(0));
+        return new Graph(nodeList, nodeCosts, true, edgeList);
+    }
         
 }
@@ -0,0 +1,129 @@
+/**
+ * A read-only column of ints stored compactly. The values are split into
+ * blocks of 64; each block keeps its smallest value and packs every value's
+ * difference from it into just as many bits as the largest difference needs.
+ * Columns of vertex or arc numbers that stay close together within a block,
+ * as they do in grouped adjacency lists, shrink to a few bits per value, and
+ * any value can still be read directly by position.
+ *
+ * @version 10/19/26
+ */
+
+class PackedInts
+{
+    /**
+     * The number of values
+     */
+
+    private int length;
+
+    /**
+     * The smallest value in each block
+     */
+
+    private int[] base;
+
+    /**
+     * The bits per value in each block, from 0 to 32
+     */
+
+    private byte[] width;
+
+    /**
+     * Where each block starts in words
+     */
+
+    private int[] start;
+
+    /**
+     * The packed differences
+     */
+
+    private long[] words;
+
+    /**
+     * Constructor for objects of class PackedInts
+     * @param values the values to pack
+     */
+
+    PackedInts(int[] values) {
+        this(values, values.length);
+    }
+
+    /**
+     * Constructor for a column of the first values of an array, so one
+     * array can be refilled and packed column after column
+     * @param values the values to pack, and possibly more
+     * @param length the number of values to pack
+     */
+
+    PackedInts(int[] values, int length) {
+        this.length = length;
+        int blocks = (length + 63) >>> 6;
+        this.base = new int[blocks];
+        this.width = new byte[blocks];
+        this.start = new int[blocks + 1];
+        for (int b = 0; b < blocks; b++) {
+            int lo = b << 6;
+            int hi = Math.min(length, lo + 64);
+            int min = values[lo];
+            int max = values[lo];
+            for (int i = lo + 1; i < hi; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            long range = (long)max - min;
+            base[b] = min;
+            width[b] = (byte)(64 - Long.numberOfLeadingZeros(range));
+            start[b + 1] = start[b] + (int)(((long)(hi - lo) * width[b] + 63) >>> 6);
+        }
+        this.words = new long[start[blocks]];
+        for (int i = 0; i < length; i++) {
+            int b = i >>> 6;
+            int w = width[b];
+            if (w == 0) continue;
+            long bit = (long)(i & 63) * w;
+            int word = start[b] + (int)(bit >>> 6);
+            int shift = (int)(bit & 63);
+            long v = ((long)values[i] - base[b]) & 0xffffffffL;
+            words[word] |= v << shift;
+            if (shift + w > 64) words[word + 1] |= v >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Read a value
+     * @param i the position
+     * @return the value
+     */
+
+    int get(int i) {
+        int b = i >>> 6;
+        int w = width[b];
+        if (w == 0) return base[b];
+        long bit = (long)(i & 63) * w;
+        int word = start[b] + (int)(bit >>> 6);
+        int shift = (int)(bit & 63);
+        long v = words[word] >>> shift;
+        if (shift + w > 64) v |= words[word + 1] << (64 - shift);
+        return base[b] + (int)(v & ((1L << w) - 1));
+    }
+
+    /**
+     * The number of values
+     * @return the length
+     */
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * The bytes held by the arrays of this column
+     * @return the size in bytes
+     */
+
+    long bytes() {
+        return 4L * base.length + width.length + 4L * start.length + 8L * words.length;
+    }
+}
@@ -0,0 +1,477 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-by-level breadth-first search over the arcs of a residual graph that
+ * still have residual capacity. Each level is expanded either top-down, from
+ * the frontier along its arcs, or bottom-up, from every unvisited vertex back
+ * toward the frontier, whichever should touch fewer arcs. Large levels are
+ * split across a fork-join pool; visited vertices are kept in a bitset.
+ * Vertices are queued in the order they are reached, so each search needs
+ * to unmark only the vertices the search before it reached.
+ *
+ * The search can also run backward, finding the vertices that can reach the
+ * start, which gives the distance-to-sink labels a global relabel needs.
+ *
+ * @version 10/19/26
+ */
+
+class ParallelBfs
+{
+    /**
+     * Go bottom-up once the frontier's arcs exceed this share of the unvisited arcs
+     */
+
+    private static final int ALPHA = 14;
+
+    /**
+     * Go back top-down once the frontier falls below this share of the vertices
+     */
+
+    private static final int BETA = 24;
+
+    /**
+     * The most vertices a single task expands before splitting
+     */
+
+    private static final int GRAIN = 512;
+
+    /**
+     * The most vertices a task holds before adding them to the next frontier
+     */
+
+    private static final int ROOM = 64;
+
+    /**
+     * The graph being searched
+     */
+
+    private ResidualGraph r;
+
+    /**
+     * The pool that expands large levels
+     */
+
+    private ForkJoinPool pool;
+
+    /**
+     * One bit per vertex, set once the vertex is visited
+     */
+
+    private AtomicLongArray visited;
+
+    /**
+     * One bit per vertex of the current frontier, for bottom-up levels
+     */
+
+    private long[] inFrontier;
+
+    /**
+     * The arc each vertex was reached by, or -1
+     */
+
+    private int[] parent;
+
+    /**
+     * The level each vertex was reached at, or -1
+     */
+
+    private int[] level;
+
+    /**
+     * The vertices in the order they were reached; each level follows the
+     * one before it
+     */
+
+    private int[] queue;
+
+    /**
+     * Where the level being built starts in the queue
+     */
+
+    private int levelEnd;
+
+    /**
+     * The number of vertices the last search reached, which are the only
+     * ones it marked; or -1 before the first search
+     */
+
+    private int reached = -1;
+
+    /**
+     * Room for what a task finds before it adds it to the next frontier:
+     * ROOM for a level expanded in this thread, then ROOM for each slice
+     */
+
+    private int[] room;
+
+    /**
+     * The slices a level split across the pool is expanded in, made on the
+     * first such level and reused by every later one
+     */
+
+    private Slice[] slices;
+
+    /**
+     * The task that runs the slices of a level on the pool, reused likewise
+     */
+
+    private Level split;
+
+    /**
+     * The size of the frontier being built
+     */
+
+    private AtomicInteger nextSize;
+
+    /**
+     * The number of arcs leaving the frontier being built
+     */
+
+    private AtomicLong nextArcs;
+
+    /**
+     * Where the arcs to follow from each vertex start, and where the arcs a
+     * bottom-up level checks at each vertex start
+     */
+
+    private int[] fanStart, gatherStart;
+
+    /**
+     * Whether the search runs backward
+     */
+
+    private boolean backward;
+
+    /**
+     * Constructor for objects of class ParallelBfs
+     * @param r the graph to search
+     */
+
+    ParallelBfs(ResidualGraph r) {
+        this(r, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for objects of class ParallelBfs
+     * @param r the graph to search
+     * @param pool the pool that expands large levels
+     */
+
+    ParallelBfs(ResidualGraph r, ForkJoinPool pool) {
+        this(r, pool, null);
+    }
+
+    /**
+     * Constructor for a search whose arrays come from a workspace
+     * @param r the graph to search
+     * @param pool the pool that expands large levels
+     * @param workspace where the arrays come from, or null to allocate them
+     */
+
+    ParallelBfs(ResidualGraph r, ForkJoinPool pool, SolverWorkspace workspace) {
+        int words = (r.n + 63) >>> 6;
+        this.r = r;
+        this.pool = pool;
+        this.visited = (workspace == null) ? new AtomicLongArray(words) : workspace.atomicLongs(words);
+        this.inFrontier = (workspace == null) ? new long[words] : workspace.longs(words);
+        this.parent = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.level = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.queue = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        // No level is wider than the vertices, so no more slices than this
+        int rooms = (r.n + GRAIN - 1) / GRAIN + 1;
+        this.room = (workspace == null) ? new int[rooms * ROOM] : workspace.ints(rooms * ROOM);
+        this.nextSize = new AtomicInteger();
+        this.nextArcs = new AtomicLong();
+        Arrays.fill(inFrontier, 0, words, 0L);
+    }
+
+    /**
+     * Search from a vertex along arcs with residual capacity
+     * @param start the vertex to search from
+     * @param target a vertex to stop at once reached, or -1 to search everything
+     * @param backward true to follow arcs from head to tail, finding the
+     *        vertices that can reach the start
+     * @return true if the target was reached, or if there was no target
+     */
+
+    boolean search(int start, int target, boolean backward) {
+        this.backward = backward;
+        fanStart = backward ? r.inStart : r.outStart;
+        gatherStart = backward ? r.outStart : r.inStart;
+        if (reached < 0) {
+            for (int i = 0; i < (r.n + 63) >>> 6; i++) {
+                visited.set(i, 0L);
+            }
+            Arrays.fill(parent, 0, r.n, -1);
+            Arrays.fill(level, 0, r.n, -1);
+        } else {
+            // Unmark only what the last search reached, not every vertex
+            for (int i = 0; i < reached; i++) {
+                int v = queue[i];
+                parent[v] = -1;
+                level[v] = -1;
+                visited.set(v >>> 6, 0L);
+            }
+        }
+
+        claim(start);
+        level[start] = 0;
+        queue[0] = start;
+        int lo = 0;
+        int hi = 1;
+        long frontierArcs = degree(start);
+        long unvisitedArcs = r.m - frontierArcs;
+        boolean topDown = true;
+        for (int depth = 1; hi > lo; depth++) {
+            if (target >= 0 && level[target] >= 0) break;
+            if (topDown && frontierArcs > unvisitedArcs / ALPHA) topDown = false;
+            else if (!topDown && hi - lo < r.n / BETA) topDown = true;
+
+            nextSize.set(0);
+            nextArcs.set(0);
+            levelEnd = hi;
+            if (topDown) {
+                expand(lo, hi, depth, true);
+            } else {
+                for (int i = lo; i < hi; i++) {
+                    inFrontier[queue[i] >>> 6] |= 1L << queue[i];
+                }
+                expand(0, r.n, depth, false);
+                for (int i = lo; i < hi; i++) {
+                    inFrontier[queue[i] >>> 6] = 0L;
+                }
+            }
+            lo = hi;
+            hi += nextSize.get();
+            frontierArcs = nextArcs.get();
+            unvisitedArcs -= frontierArcs;
+        }
+        reached = hi;
+        return target < 0 || level[target] >= 0;
+    }
+
+    /**
+     * The arc a vertex was reached by in the last search
+     * @param v the vertex
+     * @return the arc, or -1 for the start and for unreached vertices
+     */
+
+    int parent(int v) {
+        return parent[v];
+    }
+
+    /**
+     * The number of arcs between the start and a vertex in the last search
+     * @param v the vertex
+     * @return the distance, or -1 if the vertex was not reached
+     */
+
+    int level(int v) {
+        return level[v];
+    }
+
+    /**
+     * The distances of the last search, for passes over every vertex
+     * @return the level of each vertex, or -1; may be longer than the
+     *         number of vertices
+     */
+
+    int[] levels() {
+        return level;
+    }
+
+    /**
+     * Was a vertex reached in the last search?
+     * @param v the vertex
+     * @return true or false
+     */
+
+    boolean reached(int v) {
+        return level[v] >= 0;
+    }
+
+    /**
+     * Expand part of a level, in this thread if it is small and otherwise on
+     * the pool in slices of at most GRAIN. The slices and their room are
+     * kept from level to level, so a level allocates nothing.
+     * @param lo the first frontier position, or vertex for bottom-up levels
+     * @param hi one past the last
+     * @param depth the level being built
+     * @param topDown true to expand from the frontier, false from the unvisited vertices
+     */
+
+    private void expand(int lo, int hi, int depth, boolean topDown) {
+        if (hi - lo <= GRAIN) {
+            step(lo, hi, depth, topDown, 0);
+            return;
+        }
+        if (slices == null) {
+            slices = new Slice[room.length / ROOM - 1];
+            for (int i = 0; i < slices.length; i++) {
+                slices[i] = new Slice((i + 1) * ROOM);
+            }
+            split = new Level();
+        }
+        int count = (hi - lo + GRAIN - 1) / GRAIN;
+        for (int i = 0; i < count; i++) {
+            Slice slice = slices[i];
+            slice.reinitialize();
+            slice.lo = lo + i * GRAIN;
+            slice.hi = Math.min(hi, slice.lo + GRAIN);
+            slice.depth = depth;
+            slice.topDown = topDown;
+        }
+        split.reinitialize();
+        split.count = count;
+        pool.invoke(split);
+    }
+
+    /**
+     * Expand part of a level and add what it found to the next frontier,
+     * ROOM vertices at a time
+     * @param lo the first frontier position, or vertex for bottom-up levels
+     * @param hi one past the last
+     * @param depth the level being built
+     * @param topDown true to expand from the frontier, false from the unvisited vertices
+     * @param from where this task's room starts
+     */
+
+    private void step(int lo, int hi, int depth, boolean topDown, int from) {
+        int count = 0;
+        long arcs = 0;
+        for (int i = lo; i < hi; i++) {
+            if (topDown) {
+                int v = queue[i];
+                for (int k = fanStart[v]; k < fanStart[v + 1]; k++) {
+                    int a = backward ? r.inArc(k) : r.outArc(k);
+                    int w = backward ? r.tail(a) : r.head(a);
+                    if (r.residual[a] > 0 && claim(w)) {
+                        parent[w] = a;
+                        level[w] = depth;
+                        if (count == ROOM) count = flush(from, count);
+                        room[from + count++] = w;
+                        arcs += degree(w);
+                    }
+                }
+            } else if (!isVisited(i)) {
+                for (int k = gatherStart[i]; k < gatherStart[i + 1]; k++) {
+                    int a = backward ? r.outArc(k) : r.inArc(k);
+                    int u = backward ? r.head(a) : r.tail(a);
+                    if (r.residual[a] > 0 && (inFrontier[u >>> 6] & (1L << u)) != 0) {
+                        claim(i);
+                        parent[i] = a;
+                        level[i] = depth;
+                        if (count == ROOM) count = flush(from, count);
+                        room[from + count++] = i;
+                        arcs += degree(i);
+                        break;
+                    }
+                }
+            }
+        }
+        flush(from, count);
+        nextArcs.addAndGet(arcs);
+    }
+
+    /**
+     * Add what a task found to the next frontier
+     * @param from where the task's room starts
+     * @param count how many it found
+     * @return 0, the room now used
+     */
+
+    private int flush(int from, int count) {
+        int at = nextSize.getAndAdd(count);
+        System.arraycopy(room, from, queue, levelEnd + at, count);
+        return 0;
+    }
+
+    /**
+     * Mark a vertex visited
+     * @param v the vertex
+     * @return true if this call visited it, false if it was already visited
+     */
+
+    private boolean claim(int v) {
+        int i = v >>> 6;
+        long bit = 1L << v;
+        long old;
+        do {
+            old = visited.get(i);
+            if ((old & bit) != 0) return false;
+        } while (!visited.compareAndSet(i, old, old | bit));
+        return true;
+    }
+
+    /**
+     * Has a vertex been visited?
+     * @param v the vertex
+     * @return true or false
+     */
+
+    private boolean isVisited(int v) {
+        return (visited.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    /**
+     * The number of arcs a top-down level would scan at a vertex
+     * @param v the vertex
+     * @return the number of arcs
+     */
+
+    private int degree(int v) {
+        return fanStart[v + 1] - fanStart[v];
+    }
+
+    /**
+     * The slices of one level, forked together and joined in turn
+     */
+
+    private class Level extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private int count;
+
+        @Override
+        protected void compute() {
+            for (int i = 1; i < count; i++) {
+                slices[i].fork();
+            }
+            slices[0].invoke();
+            for (int i = count - 1; i > 0; i--) {
+                slices[i].join();
+            }
+        }
+    }
+
+    /**
+     * A slice of a level small enough to expand directly, with its own room
+     * for what it finds
+     */
+
+    private class Slice extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private int lo, hi, depth, from;
+        private boolean topDown;
+
+        /**
+         * Constructor for objects of class Slice
+         * @param from where the slice's room starts
+         */
+
+        Slice(int from) {
+            this.from = from;
+        }
+
+        @Override
+        protected void compute() {
+            step(lo, hi, depth, topDown, from);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimum cuts of a network whose capacities are linear in a parameter
+ * lambda, each edge carrying constant + slope * lambda, with slopes allowed
+ * only on edges at the source (not negative) and the sink (not positive).
+ * The minimum cut capacity is then a concave piecewise linear function of
+ * lambda, and the largest minimum source sides grow with lambda, so there
+ * are at most V - 2 breakpoints.
+ *
+ * The breakpoints are found by bisection on the cut lines: the lines of the
+ * cuts at the two ends of an interval meet at some lambda, and a solve there
+ * either matches both lines, making it a breakpoint, or finds a new cut that
+ * splits the interval. Because the source sides nest, each solve runs on the
+ * graph with the source side at the left end merged into the source and the
+ * sink side at the right end merged into the sink, so later solves shrink.
+ * Lambda is kept as an exact fraction and the capacities are scaled by its
+ * denominator, so every solve is in integers.
+ *
+ * As in the Gallo-Grigoriadis-Tarjan method, each solve starts from the
+ * maximum preflow found at the left end of its interval rather than from
+ * nothing. Lambda is larger there, so edges at the source only gain
+ * capacity and the old preflow still fits everywhere else, except where an
+ * edge at the sink lost capacity; the solve only has to route what the
+ * source can now send beyond it. The preflow is rescaled to the new
+ * denominator, rounding toward zero and clipping to the new capacities,
+ * and Preflow settles any vertex that leaves short. A left end keeps its
+ * preflow only on the edges touching the vertices still undecided in its
+ * interval, which are disjoint between intervals, so the preflows kept
+ * take O(E) in all. Labels are not carried: the exact distances each solve
+ * starts from are at least as high as any valid labels carried over.
+ *
+ * @version 10/19/26
+ */
+
+class Parametric
+{
+    /**
+     * The number of vertices
+     */
+
+    private int n;
+
+    /**
+     * The two ends of each edge
+     */
+
+    private int[] from, to;
+
+    /**
+     * Whether each edge is directed
+     */
+
+    private boolean[] directed;
+
+    /**
+     * The capacity of each edge at lambda 0, and its change per unit of lambda
+     */
+
+    private long[] constant, slope;
+
+    /**
+     * The source and the sink
+     */
+
+    private int s, t;
+
+    /**
+     * The breakpoints in increasing order, as numerator and denominator
+     */
+
+    private List<long[]> breakpoints;
+
+    /**
+     * The cut on each piece, from the lowest lambda up
+     */
+
+    private List<Cut> cuts;
+
+    /**
+     * Whether each solve starts from the preflow of the last
+     */
+
+    private boolean warm;
+
+    /**
+     * The number of solves and the pushes they made, so far
+     */
+
+    private long solves, pushes;
+
+    /**
+     * Constructor for objects of class Parametric
+     * @param n the number of vertices
+     * @param from the start vertex of each edge
+     * @param to the end vertex of each edge
+     * @param directed whether each edge is directed
+     * @param constant the capacity of each edge at lambda 0
+     * @param slope the change in each edge's capacity per unit of lambda
+     * @param s the source
+     * @param t the sink
+     */
+
+    Parametric(int n, int[] from, int[] to, boolean[] directed, long[] constant, long[] slope, int s, int t) {
+        this(n, from, to, directed, constant, slope, s, t, true);
+    }
+
+    /**
+     * Constructor for comparing with solves that each start from nothing
+     * @param n the number of vertices
+     * @param from the start vertex of each edge
+     * @param to the end vertex of each edge
+     * @param directed whether each edge is directed
+     * @param constant the capacity of each edge at lambda 0
+     * @param slope the change in each edge's capacity per unit of lambda
+     * @param s the source
+     * @param t the sink
+     * @param warm true to start each solve from the preflow of the left end
+     *        of its interval, false to start from nothing
+     */
+
+    Parametric(int n, int[] from, int[] to, boolean[] directed, long[] constant, long[] slope, int s, int t, boolean warm) {
+        this.warm = warm;
+        this.n = n;
+        this.from = from;
+        this.to = to;
+        this.directed = directed;
+        this.constant = constant;
+        this.slope = slope;
+        this.s = s;
+        this.t = t;
+    }
+
+    /**
+     * Find every breakpoint between two values of lambda, and the cut on
+     * each piece between them
+     * @param low the lowest lambda
+     * @param high the highest lambda
+     */
+
+    void solve(long low, long high) {
+        boolean[] none = new boolean[n];
+        none[s] = true;
+        boolean[] all = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            all[v] = v != t;
+        }
+        Cut first = cut(low, 1, none, all, null);
+        Cut last = cut(high, 1, first.side, all, first);
+        last.keep(null);
+        breakpoints = new ArrayList<long[]>();
+        cuts = new ArrayList<Cut>();
+        cuts.add(first);
+        // Intervals still to split, left ones on top so breakpoints come out in order
+        List<Cut[]> stack = new ArrayList<Cut[]>();
+        first.keep(last.side);
+        stack.add(new Cut[] { first, last });
+        while (!stack.isEmpty()) {
+            Cut[] interval = stack.remove(stack.size() - 1);
+            Cut left = interval[0];
+            Cut right = interval[1];
+            long den = left.b - right.b;
+            if (den <= 0) {
+                left.keep(null);
+                continue;
+            }
+            long num = right.a - left.a;
+            Cut middle = cut(num, den, left.side, right.side, left);
+            if (middle.value == den * left.a + num * left.b) {
+                breakpoints.add(new long[] { num, den });
+                cuts.add(right);
+                left.keep(null);
+            } else {
+                middle.keep(right.side);
+                left.keep(middle.side);
+                stack.add(new Cut[] { middle, right });
+                stack.add(new Cut[] { left, middle });
+            }
+        }
+    }
+
+    /**
+     * The number of solves so far
+     * @return the number of solves
+     */
+
+    long solves() {
+        return solves;
+    }
+
+    /**
+     * The pushes the solves made so far
+     * @return the number of pushes
+     */
+
+    long pushes() {
+        return pushes;
+    }
+
+    /**
+     * Get the breakpoints
+     * @return each breakpoint as numerator and denominator, in increasing order
+     */
+
+    List<long[]> breakpoints() {
+        return breakpoints;
+    }
+
+    /**
+     * The source side of the cut on a piece
+     * @param piece the piece, 0 below the first breakpoint
+     * @return true for each vertex on the source side
+     */
+
+    boolean[] side(int piece) {
+        return cuts.get(piece).side;
+    }
+
+    /**
+     * The capacity of the cut on a piece at lambda 0
+     * @param piece the piece
+     * @return the constant term
+     */
+
+    long constant(int piece) {
+        return cuts.get(piece).a;
+    }
+
+    /**
+     * The change in capacity of the cut on a piece per unit of lambda
+     * @param piece the piece
+     * @return the slope
+     */
+
+    long slope(int piece) {
+        return cuts.get(piece).b;
+    }
+
+    /**
+     * Find the minimum cut with the largest source side at lambda = num / den,
+     * knowing the source side includes one set and excludes the complement
+     * of another
+     * @param num the numerator of lambda
+     * @param den the denominator of lambda, positive
+     * @param inside vertices known to be on the source side
+     * @param within vertices that may be on the source side
+     * @param start the cut at a lower lambda whose preflow to start from, or null
+     * @return the cut, with its preflow
+     */
+
+    private Cut cut(long num, long den, boolean[] inside, boolean[] within, Cut start) {
+        // The known source side becomes vertex 0, the known sink side vertex 1
+        int[] local = new int[n];
+        int count = 2;
+        for (int v = 0; v < n; v++) {
+            local[v] = inside[v] ? 0 : !within[v] ? 1 : count++;
+        }
+        int m = 0;
+        for (int e = 0; e < from.length; e++) {
+            if (local[from[e]] != local[to[e]]) m++;
+        }
+        int[] u = new int[m];
+        int[] w = new int[m];
+        int[] edge = new int[m];
+        long[] forward = new long[m];
+        long[] backward = new long[m];
+        m = 0;
+        for (int e = 0; e < from.length; e++) {
+            if (local[from[e]] == local[to[e]]) continue;
+            long capacity = den * constant[e] + num * slope[e];
+            u[m] = local[from[e]];
+            w[m] = local[to[e]];
+            edge[m] = e;
+            forward[m] = capacity;
+            backward[m++] = directed[e] ? 0 : capacity;
+        }
+        long[] flow = (warm && start != null) ? start.carry(edge, forward, backward, den) : null;
+        Preflow preflow = new Preflow(count, u, w, forward, backward, flow);
+        long value = preflow.solve(0, 1);
+        solves++;
+        pushes += preflow.pushes();
+        boolean[] reaches = preflow.reachesSink(1);
+        boolean[] side = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            side[v] = !reaches[local[v]];
+        }
+        Cut cut = new Cut(side, value);
+        if (warm) cut.preflow(preflow, edge, den);
+        for (int e = 0; e < from.length; e++) {
+            if (side[from[e]] != side[to[e]] && (side[from[e]] || !directed[e])) {
+                cut.a += constant[e];
+                cut.b += slope[e];
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * A cut and its capacity as a line in lambda, with the preflow it was
+     * found by while it may still be started from
+     */
+
+    private class Cut
+    {
+        private boolean[] side;
+        private long value;
+        private long a, b;
+        private int[] edges;
+        private long[] flows;
+        private long scale;
+
+        Cut(boolean[] side, long value) {
+            this.side = side;
+            this.value = value;
+        }
+
+        /**
+         * Keep the flow of a solve on each edge that carries any
+         * @param preflow the solve
+         * @param edge the edge each of its edges was made from
+         * @param den the denominator of lambda it was solved at
+         */
+
+        void preflow(Preflow preflow, int[] edge, long den) {
+            int count = 0;
+            for (int j = 0; j < edge.length; j++) {
+                if (preflow.flow(j) != 0) count++;
+            }
+            edges = new int[count];
+            flows = new long[count];
+            scale = den;
+            count = 0;
+            for (int j = 0; j < edge.length; j++) {
+                long f = preflow.flow(j);
+                if (f == 0) continue;
+                edges[count] = edge[j];
+                flows[count++] = f;
+            }
+        }
+
+        /**
+         * Keep the preflow only on the edges touching the vertices between
+         * this cut's source side and another's
+         * @param right the larger source side, or null to drop the preflow
+         */
+
+        void keep(boolean[] right) {
+            if (edges == null) return;
+            if (right == null) {
+                edges = null;
+                flows = null;
+                return;
+            }
+            int count = 0;
+            for (int k = 0; k < edges.length; k++) {
+                int e = edges[k];
+                if ((right[from[e]] && !side[from[e]]) || (right[to[e]] && !side[to[e]])) {
+                    edges[count] = e;
+                    flows[count++] = flows[k];
+                }
+            }
+            edges = Arrays.copyOf(edges, count);
+            flows = Arrays.copyOf(flows, count);
+        }
+
+        /**
+         * The preflow rescaled onto the edges of a later solve, rounded
+         * toward zero and clipped to their capacities there
+         * @param edge the edge each of the solve's edges was made from
+         * @param forward the capacity of each from start to end
+         * @param backward the capacity of each from end to start
+         * @param den the denominator of the solve's lambda
+         * @return the flow on each of the solve's edges
+         */
+
+        long[] carry(int[] edge, long[] forward, long[] backward, long den) {
+            long[] flow = new long[edge.length];
+            if (edges == null) return flow;
+            int[] at = new int[from.length];
+            Arrays.fill(at, -1);
+            for (int j = 0; j < edge.length; j++) {
+                at[edge[j]] = j;
+            }
+            for (int k = 0; k < edges.length; k++) {
+                int j = at[edges[k]];
+                if (j < 0) continue;
+                long f;
+                try {
+                    f = Math.multiplyExact(flows[k], den) / scale;
+                }
+                catch (ArithmeticException ex) {
+                    // Too large to rescale; Preflow settles what this leaves short
+                    continue;
+                }
+                flow[j] = Math.max(-backward[j], Math.min(forward[j], f));
+            }
+            return flow;
+        }
+    }
+}
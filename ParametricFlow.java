@@ -0,0 +1,114 @@
+import java.util.List;
+
+/**
+ * The minimum cuts of a network over a range of a parameter lambda, when
+ * capacities are linear in lambda: the breakpoints where the minimum cut
+ * changes, and for each piece between them the source side of the cut and
+ * its capacity as a line in lambda. Any lambda in the range can then be
+ * answered without solving again.
+ *
+ * @version 10/19/26
+ */
+
+public class ParametricFlow
+{
+    /**
+     * The breakpoints, in increasing order
+     */
+
+    private List<Double> breakpoints;
+
+    /**
+     * The source side of the cut on each piece
+     */
+
+    private List<List<String>> sides;
+
+    /**
+     * The capacity of each piece's cut at lambda 0, and its change per unit of lambda
+     */
+
+    private long[] constants, slopes;
+
+    /**
+     * Constructor for objects of class ParametricFlow
+     * @param breakpoints the breakpoints, in increasing order
+     * @param sides the source side of the cut on each piece, one more than
+     *        there are breakpoints
+     * @param constants the capacity of each piece's cut at lambda 0
+     * @param slopes the change in each piece's cut capacity per unit of lambda
+     */
+
+    public ParametricFlow(List<Double> breakpoints, List<List<String>> sides, long[] constants, long[] slopes) {
+        this.breakpoints = breakpoints;
+        this.sides = sides;
+        this.constants = constants;
+        this.slopes = slopes;
+    }
+
+    /**
+     * Get the breakpoints
+     * @return the values of lambda where the minimum cut changes, in increasing order
+     */
+
+    public List<Double> breakpoints() {
+        return breakpoints;
+    }
+
+    /**
+     * Get the source sides
+     * @return the source side of the cut on each piece, the first below
+     *         the first breakpoint and the last above the last one
+     */
+
+    public List<List<String>> sourceSides() {
+        return sides;
+    }
+
+    /**
+     * Get the source side at a value of lambda
+     * @param lambda the value; at a breakpoint, the cut above it is given
+     * @return the names of the vertices on the source side of a minimum cut
+     */
+
+    public List<String> sourceSide(double lambda) {
+        return sides.get(piece(lambda));
+    }
+
+    /**
+     * Get the maximum flow value at a value of lambda
+     * @param lambda the value
+     * @return the capacity of the minimum cut
+     */
+
+    public double cutValue(double lambda) {
+        int piece = piece(lambda);
+        return constants[piece] + slopes[piece] * lambda;
+    }
+
+    /**
+     * Find the piece a value of lambda falls in
+     * @param lambda the value
+     * @return the piece
+     */
+
+    private int piece(double lambda) {
+        int lo = 0;
+        int hi = breakpoints.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (breakpoints.get(mid) <= lambda) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * toString implementation
+     * @return the string
+     */
+
+    public String toString() {
+        return "ParametricFlow " + breakpoints + " " + sides;
+    }
+}
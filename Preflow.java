@@ -0,0 +1,345 @@
+import java.util.Arrays;
+
+/**
+ * The first phase of FIFO push-relabel on 64-bit capacities: a maximum
+ * preflow, which is enough for the value of a maximum flow and for a
+ * minimum cut, though not for the flow itself. Arcs come in pairs, the twin
+ * of arc a being a ^ 1. Labels start as exact distances to the sink and are
+ * recomputed the same way after every n relabels; a vertex whose label
+ * reaches n can no longer reach the sink, so its excess is left where it is.
+ *
+ * A solve may start from a flow already on the edges, such as the preflow
+ * of a nearby problem, instead of from nothing. Any vertex that flow leaves
+ * short is first settled by taking the shortfall back off the flow leaving
+ * it, and every vertex left with excess is then discharged as usual.
+ *
+ * @version 10/19/26
+ */
+
+class Preflow
+{
+    /**
+     * The number of vertices
+     */
+
+    private int n;
+
+    /**
+     * The end vertex of each arc
+     */
+
+    private int[] head;
+
+    /**
+     * Where the arcs leaving each vertex start in outArcs; n + 1 entries
+     */
+
+    private int[] outStart;
+
+    /**
+     * The arcs leaving each vertex
+     */
+
+    private int[] outArcs;
+
+    /**
+     * The residual capacity of each arc
+     */
+
+    private long[] residual;
+
+    /**
+     * The flow waiting at each vertex
+     */
+
+    private long[] excess;
+
+    /**
+     * The distance label of each vertex
+     */
+
+    private int[] label;
+
+    /**
+     * The next arc each vertex tries
+     */
+
+    private int[] current;
+
+    /**
+     * The capacity of each edge from start to end, and from end to start
+     */
+
+    private long[] forward, backward;
+
+    /**
+     * The number of pushes so far
+     */
+
+    private long pushes;
+
+    /**
+     * Constructor for objects of class Preflow
+     * @param n the number of vertices
+     * @param from the start vertex of each edge
+     * @param to the end vertex of each edge
+     * @param forward the capacity of each edge from start to end
+     * @param backward the capacity of each edge from end to start, 0 for a directed edge
+     */
+
+    Preflow(int n, int[] from, int[] to, long[] forward, long[] backward) {
+        this(n, from, to, forward, backward, null);
+    }
+
+    /**
+     * Constructor for a solve starting from a flow on the edges
+     * @param n the number of vertices
+     * @param from the start vertex of each edge
+     * @param to the end vertex of each edge
+     * @param forward the capacity of each edge from start to end
+     * @param backward the capacity of each edge from end to start, 0 for a directed edge
+     * @param flow the flow on each edge from start to end, negative the
+     *        other way and within its capacities; or null for none
+     */
+
+    Preflow(int n, int[] from, int[] to, long[] forward, long[] backward, long[] flow) {
+        this.n = n;
+        this.forward = forward;
+        this.backward = backward;
+        int m = 2 * from.length;
+        this.head = new int[m];
+        this.residual = new long[m];
+        int[] tail = new int[m];
+        for (int e = 0; e < from.length; e++) {
+            tail[2 * e] = from[e];
+            head[2 * e] = to[e];
+            residual[2 * e] = forward[e];
+            tail[2 * e + 1] = to[e];
+            head[2 * e + 1] = from[e];
+            residual[2 * e + 1] = backward[e];
+        }
+        this.outStart = new int[n + 1];
+        for (int a = 0; a < m; a++) {
+            outStart[tail[a] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            outStart[v + 1] += outStart[v];
+        }
+        this.outArcs = new int[m];
+        int[] next = Arrays.copyOf(outStart, n);
+        for (int a = 0; a < m; a++) {
+            outArcs[next[tail[a]]++] = a;
+        }
+        this.excess = new long[n];
+        this.label = new int[n];
+        this.current = new int[n];
+        if (flow == null) return;
+        for (int e = 0; e < from.length; e++) {
+            residual[2 * e] -= flow[e];
+            residual[2 * e + 1] += flow[e];
+            excess[from[e]] -= flow[e];
+            excess[to[e]] += flow[e];
+        }
+    }
+
+    /**
+     * Find a maximum preflow
+     * @param s the source
+     * @param t the sink
+     * @return the value of a maximum flow
+     */
+
+    long solve(int s, int t) {
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int first = 0;
+        int size = 0;
+        settle(s, t);
+        relabelAll(s, t);
+        for (int k = outStart[s]; k < outStart[s + 1]; k++) {
+            int a = outArcs[k];
+            int w = head[a];
+            if (residual[a] > 0 && w != s) {
+                push(a, residual[a]);
+                if (w != t && !queued[w]) {
+                    queued[w] = true;
+                    queue[(first + size++) % n] = w;
+                }
+            }
+        }
+        // Excess left by a flow the solve started from
+        for (int v = 0; v < n; v++) {
+            if (excess[v] > 0 && v != s && v != t && !queued[v]) {
+                queued[v] = true;
+                queue[(first + size++) % n] = v;
+            }
+        }
+        int relabels = 0;
+        while (size > 0) {
+            int v = queue[first];
+            first = (first + 1) % n;
+            size--;
+            queued[v] = false;
+            while (excess[v] > 0 && label[v] < n) {
+                if (current[v] == outStart[v + 1]) {
+                    relabel(v);
+                    if (++relabels == n) {
+                        relabels = 0;
+                        relabelAll(s, t);
+                    }
+                    continue;
+                }
+                int a = outArcs[current[v]];
+                int w = head[a];
+                if (residual[a] > 0 && label[v] == label[w] + 1) {
+                    push(a, Math.min(excess[v], residual[a]));
+                    if (w != s && w != t && !queued[w]) {
+                        queued[w] = true;
+                        queue[(first + size++) % n] = w;
+                    }
+                } else {
+                    current[v]++;
+                }
+            }
+        }
+        return excess[t];
+    }
+
+    /**
+     * The flow on an edge after a solve
+     * @param e the edge
+     * @return the flow from start to end, negative the other way
+     */
+
+    long flow(int e) {
+        return forward[e] - residual[2 * e];
+    }
+
+    /**
+     * The number of pushes so far, including those settling a starting flow
+     * @return the number of pushes
+     */
+
+    long pushes() {
+        return pushes;
+    }
+
+    /**
+     * Which vertices can still send flow to the sink? After a maximum
+     * preflow the others form the largest source side of a minimum cut.
+     * @param t the sink
+     * @return true for each vertex that can reach the sink
+     */
+
+    boolean[] reachesSink(int t) {
+        boolean[] reached = new boolean[n];
+        int[] queue = new int[n];
+        reached[t] = true;
+        queue[0] = t;
+        int size = 1;
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                int a = outArcs[k];
+                int u = head[a];
+                if (!reached[u] && residual[a ^ 1] > 0) {
+                    reached[u] = true;
+                    queue[size++] = u;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Move flow along an arc
+     * @param a the arc
+     * @param volume the amount
+     */
+
+    private void push(int a, long volume) {
+        pushes++;
+        residual[a] -= volume;
+        residual[a ^ 1] += volume;
+        excess[head[a ^ 1]] -= volume;
+        excess[head[a]] += volume;
+    }
+
+    /**
+     * Give every vertex but the source and sink at least as much flow in as
+     * out, by sending the shortfall of each one back along arcs carrying
+     * flow away from it; this may leave the vertices upstream short in turn
+     * @param s the source
+     * @param t the sink
+     */
+
+    private void settle(int s, int t) {
+        int[] stack = new int[n];
+        boolean[] stacked = new boolean[n];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (excess[v] < 0 && v != s && v != t) {
+                stacked[v] = true;
+                stack[size++] = v;
+            }
+        }
+        while (size > 0) {
+            int v = stack[--size];
+            stacked[v] = false;
+            for (int k = outStart[v]; k < outStart[v + 1] && excess[v] < 0; k++) {
+                int a = outArcs[k];
+                long carried = (((a & 1) == 0) ? forward[a >> 1] : backward[a >> 1]) - residual[a];
+                if (carried <= 0) continue;
+                int w = head[a];
+                push(a ^ 1, Math.min(carried, -excess[v]));
+                if (excess[w] < 0 && w != s && w != t && !stacked[w]) {
+                    stacked[w] = true;
+                    stack[size++] = w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lift a vertex to one above its lowest neighbour across a residual arc
+     * @param v the vertex
+     */
+
+    private void relabel(int v) {
+        int lowest = 2 * n;
+        for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+            int a = outArcs[k];
+            if (residual[a] > 0) lowest = Math.min(lowest, label[head[a]]);
+        }
+        label[v] = Math.min(n, lowest + 1);
+        current[v] = outStart[v];
+    }
+
+    /**
+     * Set every label to the exact residual distance to the sink, or n for
+     * vertices that cannot reach it
+     * @param s the source
+     * @param t the sink
+     */
+
+    private void relabelAll(int s, int t) {
+        Arrays.fill(label, n);
+        int[] queue = new int[n];
+        label[t] = 0;
+        queue[0] = t;
+        int size = 1;
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                int a = outArcs[k];
+                int u = head[a];
+                if (label[u] == n && u != s && residual[a ^ 1] > 0) {
+                    label[u] = label[v] + 1;
+                    queue[size++] = u;
+                }
+            }
+        }
+        label[s] = n;
+        System.arraycopy(outStart, 0, current, 0, n);
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * One region of a partitioned push-relabel solve: the interior vertices of
+ * the region, the boundary vertices their arcs lead to, and those arcs. The
+ * interior is discharged with the boundary labels held fixed; excess pushed
+ * onto the boundary is left there for the coordinator to hand on.
+ *
+ * Local vertices are numbered interior first, then boundary. A region can be
+ * written to and read from a stream so it can be discharged by a worker
+ * process.
+ *
+ * @version 10/19/26
+ */
+
+class Region
+{
+    /**
+     * The number of interior vertices
+     */
+
+    int interior;
+
+    /**
+     * The distance label of each local vertex
+     */
+
+    int[] label;
+
+    /**
+     * The excess of each local vertex
+     */
+
+    int[] excess;
+
+    /**
+     * The interior out-arcs and their endpoints, residuals and twins
+     */
+
+    ResidualGraph arcs;
+
+    /**
+     * The global vertex of each local vertex; kept by the coordinator only
+     */
+
+    int[] vertex;
+
+    /**
+     * The global arc of each local arc; kept by the coordinator only
+     */
+
+    int[] arc;
+
+    /**
+     * Constructor for objects of class Region
+     * @param interior the number of interior vertices
+     * @param label the distance label of each local vertex
+     * @param excess the excess of each local vertex
+     * @param arcs the interior out-arcs
+     */
+
+    Region(int interior, int[] label, int[] excess, ResidualGraph arcs) {
+        this.interior = interior;
+        this.label = label;
+        this.excess = excess;
+        this.arcs = arcs;
+    }
+
+    /**
+     * Push excess from the interior vertices downhill until none is left,
+     * relabeling a vertex when it has no admissible arc. Pushes onto boundary
+     * vertices are allowed but the boundary is never discharged or relabeled.
+     */
+
+    void discharge() {
+        ResidualGraph r = arcs;
+        int[] current = new int[interior];
+        boolean[] queued = new boolean[interior];
+        // A vertex is queued at most once at a time, so a ring of one slot
+        // per interior vertex holds the queue
+        int[] q = new int[Math.max(1, interior)];
+        int first = 0, size = 0;
+        for (int v = 0; v < interior; v++) {
+            current[v] = r.outStart[v];
+            if (excess[v] > 0) {
+                q[size++] = v;
+                queued[v] = true;
+            }
+        }
+        while (size > 0) {
+            int u = q[first];
+            first = (first + 1 == q.length) ? 0 : first + 1;
+            size--;
+            queued[u] = false;
+            while (excess[u] > 0) {
+                if (current[u] == r.outStart[u + 1]) {
+                    relabel(u);
+                    current[u] = r.outStart[u];
+                    continue;
+                }
+                int a = r.outArcs[current[u]];
+                int w = r.head[a];
+                if (r.residual[a] > 0 && label[u] == label[w] + 1) {
+                    int volume = Math.min(excess[u], r.residual[a]);
+                    r.push(a, volume);
+                    excess[u] -= volume;
+                    excess[w] += volume;
+                    if (w < interior && !queued[w]) {
+                        int last = first + size;
+                        q[(last < q.length) ? last : last - q.length] = w;
+                        size++;
+                        queued[w] = true;
+                    }
+                } else {
+                    current[u]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Raise the label of an interior vertex to one more than its lowest
+     * neighbour across an arc with residual capacity
+     * @param u the vertex
+     */
+
+    private void relabel(int u) {
+        ResidualGraph r = arcs;
+        int min = Integer.MAX_VALUE;
+        for (int k = r.outStart[u]; k < r.outStart[u + 1]; k++) {
+            int a = r.outArcs[k];
+            if (r.residual[a] > 0) min = Math.min(min, label[r.head[a]]);
+        }
+        label[u] = min + 1;
+    }
+
+    /**
+     * Write this region for a worker
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(label.length);
+        out.writeInt(interior);
+        out.writeInt(arcs.m);
+        writeInts(out, label);
+        writeInts(out, excess);
+        writeInts(out, arcs.tail);
+        writeInts(out, arcs.head);
+        writeInts(out, arcs.residual);
+        writeInts(out, arcs.mate);
+        out.flush();
+    }
+
+    /**
+     * Read a region written by write
+     * @param in the stream
+     * @return the region, or null if the coordinator is done
+     * @throws IOException if the stream fails
+     */
+
+    static Region read(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        int interior = in.readInt();
+        int m = in.readInt();
+        int[] label = readInts(in, n);
+        int[] excess = readInts(in, n);
+        int[] tail = readInts(in, m);
+        int[] head = readInts(in, m);
+        int[] residual = readInts(in, m);
+        int[] mate = readInts(in, m);
+        return new Region(interior, label, excess, new ResidualGraph(n, tail, head, residual, new int[m], mate));
+    }
+
+    /**
+     * Write the flow pushed on each arc during discharge
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+
+    void writeResult(DataOutputStream out) throws IOException {
+        writeInts(out, arcs.flow);
+        out.flush();
+    }
+
+    /**
+     * Read the flow pushed on each arc by a worker
+     * @param in the stream
+     * @throws IOException if the stream fails
+     */
+
+    void readResult(DataInputStream in) throws IOException {
+        arcs.flow = readInts(in, arcs.m);
+    }
+
+    /**
+     * Write an array of ints
+     * @param out the stream
+     * @param values the ints
+     * @throws IOException if the stream fails
+     */
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int x : values) {
+            out.writeInt(x);
+        }
+    }
+
+    /**
+     * Read an array of ints
+     * @param in the stream
+     * @param count how many to read
+     * @return the ints
+     * @throws IOException if the stream fails
+     */
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
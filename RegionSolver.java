@@ -0,0 +1,459 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Push-relabel maximum flow over a residual graph whose vertices are split
+ * into regions. Each round every region holding excess is discharged on its
+ * own, in this process or in a worker process, against a snapshot of the
+ * labels on its boundary. The coordinator then merges the flows, recomputes
+ * exact labels with a backward search from the sink and from the source, and
+ * saturates any source arc that has become useful again. The solve ends when
+ * no vertex but the source and sink holds excess.
+ *
+ * @version 10/19/26
+ */
+
+class RegionSolver
+{
+    /**
+     * The graph being solved; its residuals and flows are updated in place
+     */
+
+    private ResidualGraph r;
+
+    /**
+     * The source and sink
+     */
+
+    private int s, t;
+
+    /**
+     * The region of each vertex
+     */
+
+    private int[] region;
+
+    /**
+     * The number of regions
+     */
+
+    private int regions;
+
+    /**
+     * The vertices of each region, other than the source and sink
+     */
+
+    private int[][] members;
+
+    /**
+     * The local number of each vertex and arc while a region is cut out, or -1
+     */
+
+    private int[] localVertex, localArc;
+
+    /**
+     * The vertices and arcs of the region being cut out, in local order
+     */
+
+    private int[] cutVertex, cutArc;
+
+    /**
+     * The distance label of each vertex
+     */
+
+    private int[] label;
+
+    /**
+     * The excess of each vertex
+     */
+
+    private int[] excess;
+
+    /**
+     * Searches toward the sink and toward the source, for global relabels
+     */
+
+    private ParallelBfs toSink, toSource;
+
+    /**
+     * Where snapshots of the solve go, or null
+     */
+
+    private Checkpoint checkpoint;
+
+    /**
+     * Whether the labels were restored and are already exact
+     */
+
+    private boolean labeled;
+
+    /**
+     * Constructor for objects of class RegionSolver
+     * @param r the residual graph
+     * @param s the source
+     * @param t the sink
+     */
+
+    RegionSolver(ResidualGraph r, int s, int t) {
+        this(r, s, t, null);
+    }
+
+    /**
+     * Constructor for a solver whose arrays come from a workspace
+     * @param r the residual graph
+     * @param s the source
+     * @param t the sink
+     * @param workspace where the arrays come from, or null to allocate them
+     */
+
+    RegionSolver(ResidualGraph r, int s, int t, SolverWorkspace workspace) {
+        this.r = r;
+        this.s = s;
+        this.t = t;
+        this.region = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.regions = 1;
+        this.label = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.excess = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.localVertex = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.localArc = (workspace == null) ? new int[r.m] : workspace.ints(r.m);
+        this.cutVertex = (workspace == null) ? new int[r.n] : workspace.ints(r.n);
+        this.cutArc = (workspace == null) ? new int[r.m] : workspace.ints(r.m);
+        Arrays.fill(region, 0, r.n, 0);
+        Arrays.fill(label, 0, r.n, 0);
+        Arrays.fill(excess, 0, r.n, 0);
+        Arrays.fill(localVertex, 0, r.n, -1);
+        Arrays.fill(localArc, 0, r.m, -1);
+        this.toSink = new ParallelBfs(r, ForkJoinPool.commonPool(), workspace);
+        this.toSource = new ParallelBfs(r, ForkJoinPool.commonPool(), workspace);
+        for (int a = 0; a < r.m; a++) {
+            excess[r.tail(a)] -= r.flow[a];
+        }
+        group();
+    }
+
+    /**
+     * Split the vertices into regions of consecutive vertices in
+     * breadth-first order from the source, ignoring arc direction, so each
+     * region is mostly connected
+     * @param count the number of regions
+     */
+
+    void partition(int count) {
+        int[] order = new int[r.n];
+        boolean[] seen = new boolean[r.n];
+        int size = 0;
+        for (int root = -1; root < r.n; root++) {
+            int start = (root < 0) ? s : root;
+            if (seen[start]) continue;
+            seen[start] = true;
+            order[size++] = start;
+            for (int i = size - 1; i < size; i++) {
+                int v = order[i];
+                for (int k = r.outStart[v]; k < r.outStart[v + 1]; k++) {
+                    int w = r.head(r.outArc(k));
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        order[size++] = w;
+                    }
+                }
+                for (int k = r.inStart[v]; k < r.inStart[v + 1]; k++) {
+                    int w = r.tail(r.inArc(k));
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        order[size++] = w;
+                    }
+                }
+            }
+        }
+        this.regions = Math.max(1, Math.min(count, r.n));
+        for (int i = 0; i < r.n; i++) {
+            region[order[i]] = (int)((long)i * regions / r.n);
+        }
+        group();
+    }
+
+    /**
+     * List the vertices of each region
+     */
+
+    private void group() {
+        int[] size = new int[regions];
+        for (int v = 0; v < r.n; v++) {
+            if (v != s && v != t) size[region[v]]++;
+        }
+        members = new int[regions][];
+        for (int k = 0; k < regions; k++) {
+            members[k] = new int[size[k]];
+            size[k] = 0;
+        }
+        for (int v = 0; v < r.n; v++) {
+            if (v != s && v != t) members[region[v]][size[region[v]]++] = v;
+        }
+    }
+
+    /**
+     * Take snapshots of the flow and labels after each round once due
+     * @param checkpoint where the snapshots go
+     */
+
+    void checkpoint(Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Continue from labels saved with a checkpoint instead of relabeling first
+     * @param saved the labels saved after a round
+     */
+
+    void restore(int[] saved) {
+        if (saved.length != r.n) return;
+        System.arraycopy(saved, 0, label, 0, r.n);
+        labeled = true;
+    }
+
+    /**
+     * The number of regions
+     * @return the number of regions
+     */
+
+    int regions() {
+        return regions;
+    }
+
+    /**
+     * Solve, discharging every region in this process
+     */
+
+    void solve() {
+        try {
+            solve(null);
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("in-process solve cannot fail on I/O", ex);
+        }
+    }
+
+    /**
+     * Solve, handing the regions that hold excess out to the workers in turn
+     * @param workers connections to worker processes, or null to discharge in this process
+     * @throws IOException if a worker connection fails
+     */
+
+    void solve(List<Socket> workers) throws IOException {
+        List<DataInputStream> ins = new ArrayList<DataInputStream>();
+        List<DataOutputStream> outs = new ArrayList<DataOutputStream>();
+        if (workers != null) {
+            for (Socket socket : workers) {
+                ins.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                outs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            }
+        }
+        if (!labeled) relabel();
+        saturateSource();
+        while (active()) {
+            List<Region> batch = new ArrayList<Region>();
+            for (int k = 0; k < regions; k++) {
+                Region part = build(k);
+                if (part != null) batch.add(part);
+            }
+            // Send a full wave of regions before reading any replies
+            for (int i = 0; i < batch.size(); i += Math.max(1, outs.size())) {
+                int wave = Math.min(batch.size() - i, Math.max(1, outs.size()));
+                for (int j = 0; j < wave; j++) {
+                    if (outs.isEmpty()) batch.get(i + j).discharge();
+                    else batch.get(i + j).write(outs.get(j));
+                }
+                for (int j = 0; j < wave && !ins.isEmpty(); j++) {
+                    batch.get(i + j).readResult(ins.get(j));
+                }
+            }
+            for (Region part : batch) {
+                merge(part);
+            }
+            relabel();
+            saturateSource();
+            if (checkpoint != null && checkpoint.due()) checkpoint.save(r.flow, label);
+        }
+    }
+
+    /**
+     * Start worker processes on this machine, solve with them and stop them
+     * @param workers the number of worker processes
+     * @throws IOException if a worker cannot be started or reached
+     */
+
+    void solveWithWorkers(int workers) throws IOException {
+        ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress());
+        List<Process> processes = new ArrayList<Process>();
+        List<Socket> sockets = new ArrayList<Socket>();
+        try {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int i = 0; i < workers; i++) {
+                ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                                       "RegionWorker", "" + server.getLocalPort());
+                pb.redirectErrorStream(true);
+                pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+                processes.add(pb.start());
+            }
+            server.setSoTimeout(60000);
+            for (int i = 0; i < workers; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+            }
+            solve(sockets);
+            for (Socket socket : sockets) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeInt(-1);
+                out.flush();
+            }
+        }
+        finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            server.close();
+            for (Process p : processes) {
+                try {
+                    p.waitFor();
+                }
+                catch (InterruptedException ex) {
+                    p.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Is there excess anywhere but the source and sink?
+     * @return true or false
+     */
+
+    private boolean active() {
+        return Scans.get().anyPositive(excess, 0, r.n, s, t);
+    }
+
+    /**
+     * Set every label to the exact residual distance to the sink, or to the
+     * number of vertices plus the distance to the source for vertices that
+     * cannot reach the sink
+     */
+
+    void relabel() {
+        toSink.search(t, -1, true);
+        toSource.search(s, -1, true);
+        Scans.get().labels(label, toSink.levels(), toSource.levels(), 0, r.n, r.n);
+        label[s] = r.n;
+        label[t] = 0;
+    }
+
+    /**
+     * Push all the residual capacity of every source arc leading to a vertex
+     * that can still reach the sink
+     */
+
+    private void saturateSource() {
+        for (int k = r.outStart[s]; k < r.outStart[s + 1]; k++) {
+            int a = r.outArc(k);
+            int w = r.head(a);
+            if (r.residual[a] > 0 && label[w] < r.n) {
+                excess[s] -= r.residual[a];
+                excess[w] += r.residual[a];
+                r.push(a, r.residual[a]);
+            }
+        }
+    }
+
+    /**
+     * Cut out a region holding excess, with its boundary
+     * @param k the region
+     * @return the region, or null if none of its vertices holds excess
+     */
+
+    private Region build(int k) {
+        int[] inside = members[k];
+        boolean active = false;
+        for (int v : inside) {
+            if (excess[v] > 0) active = true;
+        }
+        if (!active) return null;
+
+        int n = 0;
+        for (int v : inside) {
+            localVertex[v] = n;
+            cutVertex[n++] = v;
+        }
+        int m = 0;
+        for (int v : inside) {
+            for (int i = r.outStart[v]; i < r.outStart[v + 1]; i++) {
+                int a = r.outArc(i);
+                localArc[a] = m;
+                cutArc[m++] = a;
+                int w = r.head(a);
+                if (localVertex[w] < 0) {
+                    localVertex[w] = n;
+                    cutVertex[n++] = w;
+                }
+            }
+        }
+
+        int[] tail = new int[m];
+        int[] head = new int[m];
+        int[] residual = new int[m];
+        int[] mate = new int[m];
+        int[] arc = Arrays.copyOf(cutArc, m);
+        for (int i = 0; i < m; i++) {
+            int a = arc[i];
+            tail[i] = localVertex[r.tail(a)];
+            head[i] = localVertex[r.head(a)];
+            residual[i] = r.residual[a];
+            mate[i] = (r.mate(a) < 0) ? -1 : localArc[r.mate(a)];
+        }
+        int[] vertex = Arrays.copyOf(cutVertex, n);
+        int[] lab = new int[n];
+        int[] ex = new int[n];
+        for (int i = 0; i < n; i++) {
+            lab[i] = label[vertex[i]];
+            ex[i] = (i < inside.length) ? excess[vertex[i]] : 0;
+            localVertex[vertex[i]] = -1;
+        }
+        for (int a : arc) {
+            localArc[a] = -1;
+        }
+        Region part = new Region(inside.length, lab, ex, new ResidualGraph(n, tail, head, residual, new int[m], mate));
+        part.vertex = vertex;
+        part.arc = arc;
+        return part;
+    }
+
+    /**
+     * Apply the flow a region pushed to the whole graph
+     * @param part the discharged region
+     */
+
+    private void merge(Region part) {
+        ResidualGraph local = part.arcs;
+        for (int i = 0; i < local.m; i++) {
+            int f = local.flow[i];
+            if (f == 0) continue;
+            // Both arcs of a pair inside the region carry the same net flow
+            if (local.mate[i] >= 0 && local.mate[i] < i) continue;
+            int a = part.arc[i];
+            r.push(a, f);
+            excess[r.tail(a)] -= f;
+            excess[r.head(a)] += f;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Worker process for a partitioned solve. Connects to the coordinator on
+ * the local machine, then discharges each region it is sent and replies
+ * with the flow pushed on every arc, until the coordinator is done.
+ *
+ * @version 10/19/26
+ */
+
+public class RegionWorker
+{
+    /**
+     * Run a worker
+     * @param args the coordinator's port on the loopback address
+     * @throws IOException if the connection fails
+     */
+
+    public static void main(String[] args) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            Region region = Region.read(in);
+            while (region != null) {
+                region.discharge();
+                region.writeResult(out);
+                region = Region.read(in);
+            }
+        }
+        finally {
+            socket.close();
+        }
+    }
+}
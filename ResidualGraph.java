@@ -0,0 +1,469 @@
+import java.util.Arrays;
+
+/**
+ * Array form of the residual graph of a network. Every arc has a tail, a
+ * head, a residual capacity, a flow and the index of its residual twin, and
+ * the arcs leaving and entering each vertex are listed in compressed-row
+ * form. Vertices and arcs are numbered by their position in the lists the
+ * graph was built from, unless the graph was renumbered for locality, in
+ * which case vertex() and edge() translate between the two.
+ *
+ * The topology (tails, heads, twins and the arc lists) never changes during
+ * a solve, so it can be kept in bit-packed columns, while residuals and
+ * flows stay plain arrays. A graph can be built packed from the start,
+ * filling and packing one column at a time, or compacted once built plain.
+ * Code that may see a packed graph reads the topology through tail(),
+ * head(), mate(), outArc() and inArc().
+ *
+ * @version 10/19/26
+ */
+
+class ResidualGraph
+{
+    /**
+     * The number of vertices
+     */
+
+    int n;
+
+    /**
+     * The number of arcs
+     */
+
+    int m;
+
+    /**
+     * The start vertex of each arc
+     */
+
+    int[] tail;
+
+    /**
+     * The end vertex of each arc
+     */
+
+    int[] head;
+
+    /**
+     * The residual capacity of each arc
+     */
+
+    int[] residual;
+
+    /**
+     * The flow on each arc
+     */
+
+    int[] flow;
+
+    /**
+     * The residual twin of each arc, or -1 if it has none
+     */
+
+    int[] mate;
+
+    /**
+     * Where the arcs leaving each vertex start in outArcs; n + 1 entries
+     */
+
+    int[] outStart;
+
+    /**
+     * The arcs leaving each vertex
+     */
+
+    int[] outArcs;
+
+    /**
+     * Where the arcs entering each vertex start in inArcs; n + 1 entries
+     */
+
+    int[] inStart;
+
+    /**
+     * The arcs entering each vertex
+     */
+
+    int[] inArcs;
+
+    /**
+     * The topology once compacted, in place of the arrays above; or null
+     */
+
+    private PackedInts packedTail, packedHead, packedMate, packedOut, packedIn;
+
+    /**
+     * The number of each vertex by its input position, and the input
+     * position of each arc; null if not renumbered
+     */
+
+    private int[] vertexId, arcAt;
+
+    /**
+     * Constructor for objects of class ResidualGraph
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param residual the residual capacity of each arc
+     * @param flow the flow on each arc
+     * @param mate the residual twin of each arc, or -1
+     */
+
+    ResidualGraph(int n, int[] tail, int[] head, int[] residual, int[] flow, int[] mate) {
+        this(n, tail.length, tail, head, residual, flow, mate, null);
+    }
+
+    /**
+     * Constructor for a residual graph whose arrays may be longer than it
+     * needs, with its arc lists taken from a workspace
+     * @param n the number of vertices
+     * @param m the number of arcs
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param residual the residual capacity of each arc
+     * @param flow the flow on each arc
+     * @param mate the residual twin of each arc, or -1
+     * @param workspace where the arc lists come from, or null to allocate them
+     */
+
+    ResidualGraph(int n, int m, int[] tail, int[] head, int[] residual, int[] flow, int[] mate, SolverWorkspace workspace) {
+        this.n = n;
+        this.m = m;
+        this.tail = tail;
+        this.head = head;
+        this.residual = residual;
+        this.flow = flow;
+        this.mate = mate;
+        this.outStart = (workspace == null) ? new int[n + 1] : workspace.ints(n + 1);
+        this.outArcs = (workspace == null) ? new int[m] : workspace.ints(m);
+        this.inStart = (workspace == null) ? new int[n + 1] : workspace.ints(n + 1);
+        this.inArcs = (workspace == null) ? new int[m] : workspace.ints(m);
+        int[] next = (workspace == null) ? new int[n] : workspace.ints(n);
+        index(tail, outStart, outArcs, next);
+        index(head, inStart, inArcs, next);
+    }
+
+    /**
+     * Constructor for a graph whose topology is set by the caller
+     * @param n the number of vertices
+     * @param m the number of arcs
+     * @param residual the residual capacity of each arc
+     * @param flow the flow on each arc
+     */
+
+    private ResidualGraph(int n, int m, int[] residual, int[] flow) {
+        this.n = n;
+        this.m = m;
+        this.residual = residual;
+        this.flow = flow;
+    }
+
+    /**
+     * Build a residual graph with its topology packed from the start. The
+     * tails, heads and twins come packed, and the arc lists are grouped one
+     * at a time in a single scratch array and packed from it, so no more
+     * than one plain array of arcs is held besides the residuals and flows.
+     * The columns are the same as compact() would make.
+     * @param n the number of vertices
+     * @param residual the residual capacity of each arc
+     * @param flow the flow on each arc
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param mate the residual twin of each arc, or -1
+     * @param scratch room for the arcs, whose contents are lost
+     * @return the packed graph
+     */
+
+    static ResidualGraph packed(int n, int[] residual, int[] flow, PackedInts tail, PackedInts head, PackedInts mate, int[] scratch) {
+        ResidualGraph r = new ResidualGraph(n, tail.length(), residual, flow);
+        r.packedTail = tail;
+        r.packedHead = head;
+        r.packedMate = mate;
+        r.outStart = new int[n + 1];
+        r.inStart = new int[n + 1];
+        int[] next = new int[n];
+        r.packedOut = r.index(tail, r.outStart, scratch, next);
+        r.packedIn = r.index(head, r.inStart, scratch, next);
+        return r;
+    }
+
+    /**
+     * Build a residual graph with its vertices renumbered and its arcs
+     * ordered by their new tails, keeping the input order among arcs that
+     * share a tail
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc, by input position
+     * @param head the end vertex of each arc, by input position
+     * @param residual the residual capacity of each arc
+     * @param flow the flow on each arc
+     * @param mate the residual twin of each arc, or -1
+     * @param rank the new number of each vertex
+     * @return the renumbered graph
+     */
+
+    static ResidualGraph renumbered(int n, int[] tail, int[] head, int[] residual, int[] flow, int[] mate, int[] rank) {
+        int m = tail.length;
+        int[] start = new int[n + 1];
+        for (int a = 0; a < m; a++) {
+            start[rank[tail[a]] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] arcAt = new int[m];
+        int[] arcId = new int[m];
+        for (int a = 0; a < m; a++) {
+            int b = start[rank[tail[a]]]++;
+            arcAt[b] = a;
+            arcId[a] = b;
+        }
+        int[] newTail = new int[m];
+        int[] newHead = new int[m];
+        int[] newResidual = new int[m];
+        int[] newFlow = new int[m];
+        int[] newMate = new int[m];
+        for (int b = 0; b < m; b++) {
+            int a = arcAt[b];
+            newTail[b] = rank[tail[a]];
+            newHead[b] = rank[head[a]];
+            newResidual[b] = residual[a];
+            newFlow[b] = flow[a];
+            newMate[b] = (mate[a] < 0) ? -1 : arcId[mate[a]];
+        }
+        ResidualGraph r = new ResidualGraph(n, newTail, newHead, newResidual, newFlow, newMate);
+        r.vertexId = rank;
+        r.arcAt = arcAt;
+        return r;
+    }
+
+    /**
+     * The number of a vertex
+     * @param position the position of the vertex in the input
+     * @return the vertex
+     */
+
+    int vertex(int position) {
+        return (vertexId == null) ? position : vertexId[position];
+    }
+
+    /**
+     * The input position of an arc
+     * @param a the arc
+     * @return the position of the arc in the input
+     */
+
+    int edge(int a) {
+        return (arcAt == null) ? a : arcAt[a];
+    }
+
+    /**
+     * The mean distance between the numbers of the two ends of an arc, a
+     * measure of how far apart in memory a search has to reach
+     * @return the mean distance, or 0 if there are no arcs
+     */
+
+    double span() {
+        if (m == 0) return 0;
+        long total = 0;
+        for (int a = 0; a < m; a++) {
+            total += Math.abs(tail(a) - head(a));
+        }
+        return (double)total / m;
+    }
+
+    /**
+     * Group the arcs by one of their endpoints
+     * @param key the endpoint of each arc to group by
+     * @param start receives where each vertex's arcs start
+     * @param arcs receives the arcs, grouped
+     * @param next room for n positions
+     */
+
+    private void index(int[] key, int[] start, int[] arcs, int[] next) {
+        Arrays.fill(start, 0, n + 1, 0);
+        for (int a = 0; a < m; a++) {
+            start[key[a] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+        System.arraycopy(start, 0, next, 0, n);
+        for (int a = 0; a < m; a++) {
+            arcs[next[key[a]]++] = a;
+        }
+    }
+
+    /**
+     * Group the arcs by one packed endpoint and pack the groups
+     * @param key the endpoint of each arc to group by
+     * @param start receives where each vertex's arcs start
+     * @param arcs room for the arcs, grouped
+     * @param next room for n positions
+     * @return the arcs, grouped and packed
+     */
+
+    private PackedInts index(PackedInts key, int[] start, int[] arcs, int[] next) {
+        for (int a = 0; a < m; a++) {
+            start[key.get(a) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+        System.arraycopy(start, 0, next, 0, n);
+        for (int a = 0; a < m; a++) {
+            arcs[next[key.get(a)]++] = a;
+        }
+        return new PackedInts(arcs, m);
+    }
+
+    /**
+     * Replace the topology arrays with bit-packed columns. The arrays are
+     * dropped, so only the accessor methods may be used afterwards. This
+     * packs a graph already built plain; see packed() for building one
+     * without the plain topology.
+     */
+
+    void compact() {
+        if (tail == null) return;
+        packedTail = new PackedInts(tail, m);
+        packedHead = new PackedInts(head, m);
+        packedMate = new PackedInts(mate, m);
+        packedOut = new PackedInts(outArcs, m);
+        packedIn = new PackedInts(inArcs, m);
+        tail = head = mate = outArcs = inArcs = null;
+    }
+
+    /**
+     * The bytes held by the topology, plain or compacted
+     * @return the size in bytes
+     */
+
+    long topologyBytes() {
+        long starts = 4L * (outStart.length + inStart.length);
+        if (tail != null) return starts + 4L * (tail.length + head.length + mate.length + outArcs.length + inArcs.length);
+        return starts + packedTail.bytes() + packedHead.bytes() + packedMate.bytes() + packedOut.bytes() + packedIn.bytes();
+    }
+
+    /**
+     * The start vertex of an arc
+     * @param a the arc
+     * @return the vertex
+     */
+
+    int tail(int a) {
+        return (tail != null) ? tail[a] : packedTail.get(a);
+    }
+
+    /**
+     * The end vertex of an arc
+     * @param a the arc
+     * @return the vertex
+     */
+
+    int head(int a) {
+        return (head != null) ? head[a] : packedHead.get(a);
+    }
+
+    /**
+     * The residual twin of an arc
+     * @param a the arc
+     * @return the twin, or -1 if it has none
+     */
+
+    int mate(int a) {
+        return (mate != null) ? mate[a] : packedMate.get(a);
+    }
+
+    /**
+     * An arc leaving a vertex
+     * @param k the position in the out-lists, from outStart[v] to outStart[v + 1] - 1
+     * @return the arc
+     */
+
+    int outArc(int k) {
+        return (outArcs != null) ? outArcs[k] : packedOut.get(k);
+    }
+
+    /**
+     * An arc entering a vertex
+     * @param k the position in the in-lists, from inStart[v] to inStart[v + 1] - 1
+     * @return the arc
+     */
+
+    int inArc(int k) {
+        return (inArcs != null) ? inArcs[k] : packedIn.get(k);
+    }
+
+    /**
+     * Number the strongly connected components of the arcs with residual
+     * capacity, by Tarjan's algorithm with its own stack so long paths
+     * cannot overflow the thread's
+     * @return the component of each vertex
+     */
+
+    int[] strongComponents() {
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        int[] next = new int[n];
+        int[] open = new int[n];
+        int[] call = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        int visited = 0;
+        int count = 0;
+        int top = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            index[root] = low[root] = visited++;
+            next[root] = outStart[root];
+            open[top++] = root;
+            call[depth++] = root;
+            while (depth > 0) {
+                int v = call[depth - 1];
+                if (next[v] < outStart[v + 1]) {
+                    int a = outArc(next[v]++);
+                    if (residual[a] <= 0) continue;
+                    int w = head(a);
+                    if (index[w] < 0) {
+                        index[w] = low[w] = visited++;
+                        next[w] = outStart[w];
+                        open[top++] = w;
+                        call[depth++] = w;
+                    } else if (component[w] < 0) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) low[call[depth - 1]] = Math.min(low[call[depth - 1]], low[v]);
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = open[--top];
+                        component[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Push flow along an arc, moving the residual capacity to its twin
+     * @param a the arc
+     * @param volume the amount of flow
+     */
+
+    void push(int a, int volume) {
+        flow[a] += volume;
+        residual[a] -= volume;
+        int b = mate(a);
+        if (b >= 0) {
+            flow[b] -= volume;
+            residual[b] += volume;
+        }
+    }
+}
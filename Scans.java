@@ -0,0 +1,135 @@
+/**
+ * Linear passes over the array form that a solve repeats every round: the
+ * check for excess left anywhere, the labels a global relabel sets from its
+ * two searches, and the net flow out of the source. These are written here
+ * one element at a time; VectorScans does the same passes several elements
+ * at a time with the incubating vector API and gives exactly the same
+ * answers.
+ *
+ * The vector passes are used only when the JVM is started with
+ * -Dnetwork.vector=true, and only if VectorScans can be loaded. Its source
+ * is kept in vector/ out of the default build, since compiling and loading
+ * it needs --add-modules jdk.incubator.vector; it is found by name at run
+ * time, so nothing here depends on it. Otherwise these scalar passes are
+ * used. The commands to build VectorScans and test with it are in its
+ * doc comment.
+ *
+ * @version 10/19/26
+ */
+
+class Scans
+{
+    /**
+     * The passes every solve uses, chosen once
+     */
+
+    private static final Scans CHOSEN = Boolean.getBoolean("network.vector") ? vectorOrScalar() : new Scans();
+
+    /**
+     * The passes every solve uses
+     * @return the vector passes if asked for and available, else the scalar ones
+     */
+
+    static Scans get() {
+        return CHOSEN;
+    }
+
+    /**
+     * The scalar passes
+     * @return the scalar passes
+     */
+
+    static Scans scalar() {
+        return new Scans();
+    }
+
+    /**
+     * The vector passes, if the runtime has the vector API
+     * @return the vector passes, or null
+     */
+
+    static Scans vector() {
+        try {
+            return (Scans)Class.forName("VectorScans").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * The vector passes, or the scalar ones if the vector API is missing
+     * @return the passes
+     */
+
+    private static Scans vectorOrScalar() {
+        Scans vector = vector();
+        return (vector == null) ? new Scans() : vector;
+    }
+
+    /**
+     * Is this the vector form?
+     * @return true or false
+     */
+
+    boolean isVector() {
+        return false;
+    }
+
+    /**
+     * Is any value in a range positive, other than at two positions?
+     * @param a the values
+     * @param from the first position
+     * @param to one past the last
+     * @param skip a position to ignore
+     * @param also another position to ignore
+     * @return true or false
+     */
+
+    boolean anyPositive(int[] a, int from, int to, int skip, int also) {
+        for (int i = from; i < to; i++) {
+            if (a[i] > 0 && i != skip && i != also) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set the labels of a global relabel: the distance to the sink where the
+     * sink can be reached, n plus the distance to the source where only the
+     * source can, and 2n elsewhere
+     * @param label receives the labels
+     * @param toSink the distance of each vertex to the sink, or -1
+     * @param toSource the distance of each vertex to the source, or -1
+     * @param from the first vertex
+     * @param to one past the last
+     * @param n the number of vertices
+     */
+
+    void labels(int[] label, int[] toSink, int[] toSource, int from, int to, int n) {
+        for (int v = from; v < to; v++) {
+            if (toSink[v] >= 0) label[v] = toSink[v];
+            else if (toSource[v] >= 0) label[v] = n + toSource[v];
+            else label[v] = 2 * n;
+        }
+    }
+
+    /**
+     * The net flow out of a vertex along a range of arcs, ignoring loops
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param flow the flow on each arc
+     * @param from the first arc
+     * @param to one past the last
+     * @param s the vertex
+     * @return the flow leaving less the flow entering
+     */
+
+    long netFlow(int[] tail, int[] head, int[] flow, int from, int to, int s) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            if (tail[i] == s && head[i] != s) value += flow[i];
+            if (head[i] == s && tail[i] != s) value -= flow[i];
+        }
+        return value;
+    }
+}
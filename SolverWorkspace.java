@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Working arrays kept from one solve for the next, so that solving many
+ * graphs of about the same size stops allocating the residual graph's
+ * arrays, the search's labels, parents and queue, and the push-relabel
+ * labels and excesses. A solve asks for its arrays in the same order every
+ * time, and the workspace hands back the array it gave out at the same
+ * point last time if that is long enough, or a longer one otherwise.
+ * Arrays may be longer than asked for and hold whatever the last solve
+ * left in them, so whoever takes one sets what it reads.
+ *
+ * A workspace serves one solve at a time. Network.maxFlow only draws on it
+ * for the array engines with the input ordering and an uncompressed
+ * topology; other solves allocate as before.
+ *
+ * @version 10/19/26
+ */
+
+public class SolverWorkspace
+{
+    /**
+     * The int arrays, in the order they were handed out
+     */
+
+    private int[][] ints = new int[8][];
+
+    /**
+     * The bitsets, in the order they were handed out
+     */
+
+    private long[][] longs = new long[2][];
+
+    /**
+     * The shared bitsets, in the order they were handed out
+     */
+
+    private AtomicLongArray[] atomics = new AtomicLongArray[2];
+
+    /**
+     * How many of each have been handed out in this solve
+     */
+
+    private int usedInts, usedLongs, usedAtomics;
+
+    /**
+     * Start a solve: arrays are handed out again from the first
+     */
+
+    void reset() {
+        usedInts = usedLongs = usedAtomics = 0;
+    }
+
+    /**
+     * Take the next int array
+     * @param length the least length needed
+     * @return an array at least that long, with any contents
+     */
+
+    int[] ints(int length) {
+        if (usedInts == ints.length) ints = Arrays.copyOf(ints, 2 * usedInts);
+        int[] a = ints[usedInts];
+        if (a == null || a.length < length) ints[usedInts] = a = new int[grow(length)];
+        usedInts++;
+        return a;
+    }
+
+    /**
+     * Take the next bitset
+     * @param length the least number of words needed
+     * @return an array at least that long, with any contents
+     */
+
+    long[] longs(int length) {
+        if (usedLongs == longs.length) longs = Arrays.copyOf(longs, 2 * usedLongs);
+        long[] a = longs[usedLongs];
+        if (a == null || a.length < length) longs[usedLongs] = a = new long[grow(length)];
+        usedLongs++;
+        return a;
+    }
+
+    /**
+     * Take the next shared bitset
+     * @param length the least number of words needed
+     * @return an array at least that long, with any contents
+     */
+
+    AtomicLongArray atomicLongs(int length) {
+        if (usedAtomics == atomics.length) atomics = Arrays.copyOf(atomics, 2 * usedAtomics);
+        AtomicLongArray a = atomics[usedAtomics];
+        if (a == null || a.length() < length) atomics[usedAtomics] = a = new AtomicLongArray(grow(length));
+        usedAtomics++;
+        return a;
+    }
+
+    /**
+     * The length to allocate, with room for graphs a little larger
+     * @param length the least length needed
+     * @return the length
+     */
+
+    private static int grow(int length) {
+        return (int)Math.min(Integer.MAX_VALUE - 8, length + (length >> 3) + 16L);
+    }
+
+    /**
+     * The bytes held by the arrays
+     * @return the size in bytes
+     */
+
+    public long bytes() {
+        long total = 0;
+        for (int[] a : ints) {
+            if (a != null) total += 4L * a.length;
+        }
+        for (long[] a : longs) {
+            if (a != null) total += 8L * a.length;
+        }
+        for (AtomicLongArray a : atomics) {
+            if (a != null) total += 8L * a.length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dinic's maximum flow for networks where every edge carries at most one
+ * unit, as when counting edge-disjoint paths. Each directed edge becomes an
+ * arc and a residual twin, and an undirected edge becomes two such pairs,
+ * so every residual capacity is 0 or 1 and is kept as one bit. Each phase
+ * layers the vertices by a breadth-first search and then sends single
+ * units along level-increasing arcs, advancing a current-arc pointer past
+ * every arc that fails; on unit networks this takes O(min(sqrt(E), V^(2/3)))
+ * phases of O(E) work.
+ *
+ * @version 10/19/26
+ */
+
+class UnitDinic
+{
+    /**
+     * The number of vertices
+     */
+
+    private int n;
+
+    /**
+     * The edge each arc was made from; the twin of arc a is a ^ 1
+     */
+
+    private int[] edge;
+
+    /**
+     * The end vertex of each arc
+     */
+
+    private int[] head;
+
+    /**
+     * Where the arcs leaving each vertex start in outArcs; n + 1 entries
+     */
+
+    private int[] outStart;
+
+    /**
+     * The arcs leaving each vertex
+     */
+
+    private int[] outArcs;
+
+    /**
+     * One bit per arc, set while the arc has residual capacity
+     */
+
+    private long[] residual;
+
+    /**
+     * The level of each vertex in the current phase, or -1
+     */
+
+    private int[] level;
+
+    /**
+     * The next arc each vertex tries in the current phase
+     */
+
+    private int[] current;
+
+    /**
+     * Constructor for objects of class UnitDinic
+     * @param n the number of vertices
+     * @param from the start vertex of each edge
+     * @param to the end vertex of each edge
+     * @param directed whether each edge is directed
+     */
+
+    UnitDinic(int n, int[] from, int[] to, boolean[] directed) {
+        this.n = n;
+        int m = 0;
+        for (int e = 0; e < from.length; e++) {
+            m += directed[e] ? 2 : 4;
+        }
+        this.edge = new int[m];
+        this.head = new int[m];
+        int[] tail = new int[m];
+        this.residual = new long[(m + 63) >>> 6];
+        int a = 0;
+        for (int e = 0; e < from.length; e++) {
+            for (int way = 0; way < (directed[e] ? 1 : 2); way++) {
+                int u = (way == 0) ? from[e] : to[e];
+                int v = (way == 0) ? to[e] : from[e];
+                edge[a] = e;
+                tail[a] = u;
+                head[a] = v;
+                residual[a >>> 6] |= 1L << a;
+                edge[a + 1] = e;
+                tail[a + 1] = v;
+                head[a + 1] = u;
+                a += 2;
+            }
+        }
+        this.outStart = new int[n + 1];
+        for (int b = 0; b < m; b++) {
+            outStart[tail[b] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            outStart[v + 1] += outStart[v];
+        }
+        this.outArcs = new int[m];
+        int[] next = Arrays.copyOf(outStart, n);
+        for (int b = 0; b < m; b++) {
+            outArcs[next[tail[b]]++] = b;
+        }
+        this.level = new int[n];
+        this.current = new int[n];
+    }
+
+    /**
+     * Send as many units as possible from s to t, up to a limit
+     * @param s the source
+     * @param t the sink
+     * @param limit the most units to send
+     * @return the number of units sent
+     */
+
+    int solve(int s, int t, int limit) {
+        int flow = 0;
+        int[] queue = new int[n];
+        int[] path = new int[n];
+        while (flow < limit && layer(s, t, queue)) {
+            System.arraycopy(outStart, 0, current, 0, n);
+            while (flow < limit && advance(s, t, path)) {
+                flow++;
+            }
+        }
+        return flow;
+    }
+
+    /**
+     * The edge an arc was made from
+     * @param a the arc
+     * @return the edge
+     */
+
+    int edge(int a) {
+        return edge[a];
+    }
+
+    /**
+     * The end vertex of an arc
+     * @param a the arc
+     * @return the vertex
+     */
+
+    int head(int a) {
+        return head[a];
+    }
+
+    /**
+     * Does an arc have residual capacity?
+     * @param a the arc
+     * @return true or false
+     */
+
+    private boolean open(int a) {
+        return (residual[a >>> 6] & (1L << a)) != 0;
+    }
+
+    /**
+     * Level the vertices by residual distance from the source
+     * @param s the source
+     * @param t the sink
+     * @param queue room for every vertex
+     * @return true if the sink was reached
+     */
+
+    private boolean layer(int s, int t, int[] queue) {
+        Arrays.fill(level, -1);
+        level[s] = 0;
+        queue[0] = s;
+        int size = 1;
+        for (int i = 0; i < size && level[t] < 0; i++) {
+            int v = queue[i];
+            for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                int a = outArcs[k];
+                int w = head[a];
+                if (level[w] < 0 && open(a)) {
+                    level[w] = level[v] + 1;
+                    queue[size++] = w;
+                }
+            }
+        }
+        return level[t] >= 0;
+    }
+
+    /**
+     * Send one unit along level-increasing arcs, abandoning each dead end
+     * @param s the source
+     * @param t the sink
+     * @param path room for the arcs of one path
+     * @return true if a unit reached the sink
+     */
+
+    private boolean advance(int s, int t, int[] path) {
+        int depth = 0;
+        int v = s;
+        while (v != t) {
+            if (current[v] == outStart[v + 1]) {
+                if (v == s) return false;
+                // A dead end: retreat and skip the arc that led here
+                level[v] = -1;
+                int back = path[--depth];
+                v = head[back ^ 1];
+                current[v]++;
+                continue;
+            }
+            int a = outArcs[current[v]];
+            int w = head[a];
+            if (open(a) && level[w] == level[v] + 1) {
+                path[depth++] = a;
+                v = w;
+            } else {
+                current[v]++;
+            }
+        }
+        for (int i = 0; i < depth; i++) {
+            int a = path[i];
+            residual[a >>> 6] &= ~(1L << a);
+            residual[(a ^ 1) >>> 6] |= 1L << (a ^ 1);
+        }
+        return true;
+    }
+
+    /**
+     * Split the flow into s-t paths of single units. Units an undirected
+     * edge carries both ways cancel, and cycles are dropped.
+     * @param s the source
+     * @param t the sink
+     * @return each path as the arcs along it
+     */
+
+    List<int[]> paths(int s, int t) {
+        int m = edge.length;
+        // An arc carries flow when it is full and was made as a forward arc
+        boolean[] carries = new boolean[m];
+        for (int a = 0; a < m; a += 2) {
+            carries[a] = !open(a);
+        }
+        for (int a = 0; a + 2 < m; a += 2) {
+            if (edge[a + 2] == edge[a] && carries[a] && carries[a + 2]) {
+                carries[a] = false;
+                carries[a + 2] = false;
+            }
+        }
+        int[] next = Arrays.copyOf(outStart, n);
+        int[] pos = new int[n];
+        Arrays.fill(pos, -1);
+        int[] vertices = new int[n + 1];
+        int[] arcs = new int[n];
+        List<int[]> paths = new ArrayList<int[]>();
+        while (true) {
+            int depth = 0;
+            vertices[0] = s;
+            pos[s] = 0;
+            int v = s;
+            while (v != t) {
+                while (next[v] < outStart[v + 1] && !carries[outArcs[next[v]]]) {
+                    next[v]++;
+                }
+                if (next[v] == outStart[v + 1]) break;
+                int a = outArcs[next[v]++];
+                carries[a] = false;
+                int w = head[a];
+                if (pos[w] >= 0) {
+                    // A cycle: drop it and carry on from where it began
+                    for (int i = pos[w] + 1; i <= depth; i++) {
+                        pos[vertices[i]] = -1;
+                    }
+                    depth = pos[w];
+                } else {
+                    arcs[depth++] = a;
+                    vertices[depth] = w;
+                    pos[w] = depth;
+                }
+                v = w;
+            }
+            for (int i = 0; i <= depth; i++) {
+                pos[vertices[i]] = -1;
+            }
+            if (v != t) break;
+            paths.add(Arrays.copyOf(arcs, depth));
+        }
+        return paths;
+    }
+
+    /**
+     * The edges leaving the vertices the source can still reach, after a
+     * maximum flow; together they separate the source from the sink
+     * @param s the source
+     * @return the edges, without repeats
+     */
+
+    int[] cut(int s) {
+        int[] queue = new int[n];
+        boolean[] reached = new boolean[n];
+        reached[s] = true;
+        queue[0] = s;
+        int size = 1;
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                int a = outArcs[k];
+                if (open(a) && !reached[head[a]]) {
+                    reached[head[a]] = true;
+                    queue[size++] = head[a];
+                }
+            }
+        }
+        int[] cut = new int[edge.length];
+        int count = 0;
+        for (int a = 0; a < edge.length; a += 2) {
+            int u = head[a ^ 1];
+            if (reached[u] && !reached[head[a]] && (count == 0 || cut[count - 1] != edge[a])) {
+                cut[count++] = edge[a];
+            }
+        }
+        return Arrays.copyOf(cut, count);
+    }
+}
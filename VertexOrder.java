@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+/**
+ * Renumberings of the vertices of a graph that place vertices joined by an
+ * arc near each other, so searches over the array form touch memory in
+ * order. Arc direction is ignored throughout.
+ *
+ * @version 10/19/26
+ */
+
+class VertexOrder
+{
+    /**
+     * Number the vertices in the given ordering
+     * @param ordering the ordering
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param s the vertex breadth-first order starts from
+     * @return the new number of each vertex
+     */
+
+    static int[] rank(Network.Ordering ordering, int n, int[] tail, int[] head, int s) {
+        int[] order;
+        if (ordering == Network.Ordering.BFS) {
+            order = breadthFirst(n, tail, head, s, false);
+        } else if (ordering == Network.Ordering.REVERSE_CUTHILL_MCKEE) {
+            order = breadthFirst(n, tail, head, -1, true);
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        } else if (ordering == Network.Ordering.DEGREE) {
+            order = byDegree(n, tail, head, true);
+        } else {
+            order = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+        }
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[order[i]] = i;
+        }
+        return rank;
+    }
+
+    /**
+     * Visit the vertices breadth-first, restarting at each vertex not yet
+     * visited until all are
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param s the first vertex, or -1 for none
+     * @param cuthillMcKee true to start each component at a vertex of least
+     *        degree and visit the neighbours of each vertex by increasing
+     *        degree; false to take vertices in input order
+     * @return the vertices in the order visited
+     */
+
+    private static int[] breadthFirst(int n, int[] tail, int[] head, int s, boolean cuthillMcKee) {
+        int[] start = new int[n + 1];
+        int[] adj = neighbours(n, tail, head, start);
+        int[] roots;
+        if (cuthillMcKee) {
+            roots = byDegree(n, tail, head, false);
+            // Hand each vertex to its neighbours in order of degree, so every
+            // neighbour list comes out sorted by degree
+            int[] next = Arrays.copyOf(start, n);
+            int[] sorted = new int[adj.length];
+            for (int w : roots) {
+                for (int k = start[w]; k < start[w + 1]; k++) {
+                    sorted[next[adj[k]]++] = w;
+                }
+            }
+            adj = sorted;
+        } else {
+            roots = new int[n];
+            for (int v = 0; v < n; v++) {
+                roots[v] = v;
+            }
+        }
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int size = 0;
+        for (int i = (s < 0) ? 0 : -1; i < n; i++) {
+            int root = (i < 0) ? s : roots[i];
+            if (seen[root]) continue;
+            seen[root] = true;
+            order[size++] = root;
+            for (int j = size - 1; j < size; j++) {
+                int v = order[j];
+                for (int k = start[v]; k < start[v + 1]; k++) {
+                    int w = adj[k];
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        order[size++] = w;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The vertices sorted by the number of arcs at them, ties in input order
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param descending true for the most arcs first
+     * @return the vertices in order
+     */
+
+    private static int[] byDegree(int n, int[] tail, int[] head, boolean descending) {
+        int[] degree = new int[n];
+        int max = 0;
+        for (int a = 0; a < tail.length; a++) {
+            max = Math.max(max, ++degree[tail[a]]);
+            max = Math.max(max, ++degree[head[a]]);
+        }
+        int[] count = new int[max + 2];
+        for (int v = 0; v < n; v++) {
+            count[(descending ? max - degree[v] : degree[v]) + 1]++;
+        }
+        for (int d = 0; d <= max; d++) {
+            count[d + 1] += count[d];
+        }
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[count[descending ? max - degree[v] : degree[v]]++] = v;
+        }
+        return order;
+    }
+
+    /**
+     * List the neighbours of every vertex, both ways along every arc
+     * @param n the number of vertices
+     * @param tail the start vertex of each arc
+     * @param head the end vertex of each arc
+     * @param start receives where each vertex's neighbours start; n + 1 entries
+     * @return the neighbours
+     */
+
+    private static int[] neighbours(int n, int[] tail, int[] head, int[] start) {
+        for (int a = 0; a < tail.length; a++) {
+            start[tail[a] + 1]++;
+            start[head[a] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] next = Arrays.copyOf(start, n);
+        int[] adj = new int[2 * tail.length];
+        for (int a = 0; a < tail.length; a++) {
+            adj[next[tail[a]]++] = head[a];
+            adj[next[head[a]]++] = tail[a];
+        }
+        return adj;
+    }
+}
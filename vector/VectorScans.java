@@ -0,0 +1,96 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The passes of Scans done a vector of elements at a time with the
+ * incubating vector API, at the platform's preferred width. Each pass
+ * finishes the elements left over past the last full vector one at a time,
+ * and sums are kept in long lanes so they match the scalar sums exactly.
+ *
+ * This file lives apart from the rest so that compiling the default sources
+ * needs no extra modules. Build it into the same class directory with
+ *
+ *     javac --add-modules jdk.incubator.vector -cp . -d . vector/VectorScans.java
+ *
+ * and run with --add-modules jdk.incubator.vector -Dnetwork.vector=true,
+ * as in running the tests against it:
+ *
+ *     java --add-modules jdk.incubator.vector -Dnetwork.vector=true \
+ *         -cp .:junit.jar:hamcrest-core.jar org.junit.runner.JUnitCore NetworkTest
+ *
+ * Scans falls back to its scalar passes when it cannot be loaded, and
+ * testVectorScans is then reported as skipped.
+ *
+ * @version 10/19/26
+ */
+
+class VectorScans extends Scans
+{
+    /**
+     * Int lanes at the preferred width
+     */
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Long lanes at the same width, half as many as the int lanes
+     */
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    boolean isVector() {
+        return true;
+    }
+
+    @Override
+    boolean anyPositive(int[] a, int from, int to, int skip, int also) {
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            if (IntVector.fromArray(INTS, a, i).compare(VectorOperators.GT, 0).anyTrue()) {
+                // Only the two ignored positions can make this a false alarm
+                if (super.anyPositive(a, i, i + INTS.length(), skip, also)) return true;
+            }
+        }
+        return super.anyPositive(a, i, to, skip, also);
+    }
+
+    @Override
+    void labels(int[] label, int[] toSink, int[] toSource, int from, int to, int n) {
+        IntVector unreached = IntVector.broadcast(INTS, 2 * n);
+        int v = from;
+        for (int bound = from + INTS.loopBound(to - from); v < bound; v += INTS.length()) {
+            IntVector sink = IntVector.fromArray(INTS, toSink, v);
+            IntVector source = IntVector.fromArray(INTS, toSource, v);
+            unreached.blend(source.add(n), source.compare(VectorOperators.GE, 0))
+                .blend(sink, sink.compare(VectorOperators.GE, 0))
+                .intoArray(label, v);
+        }
+        super.labels(label, toSink, toSource, v, to, n);
+    }
+
+    @Override
+    long netFlow(int[] tail, int[] head, int[] flow, int from, int to, int s) {
+        LongVector total = LongVector.zero(LONGS);
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            IntVector start = IntVector.fromArray(INTS, tail, i);
+            IntVector end = IntVector.fromArray(INTS, head, i);
+            VectorMask<Integer> leaving = start.compare(VectorOperators.EQ, s).andNot(end.compare(VectorOperators.EQ, s));
+            VectorMask<Integer> entering = end.compare(VectorOperators.EQ, s).andNot(start.compare(VectorOperators.EQ, s));
+            if (!leaving.or(entering).anyTrue()) continue;
+            IntVector f = IntVector.fromArray(INTS, flow, i);
+            IntVector out = IntVector.zero(INTS).blend(f, leaving);
+            IntVector in = IntVector.zero(INTS).blend(f, entering);
+            // Widen each half to longs before adding, as the scalar sum does
+            for (int part = 0; part < 2; part++) {
+                total = total.add((LongVector)out.convertShape(VectorOperators.I2L, LONGS, part))
+                    .sub((LongVector)in.convertShape(VectorOperators.I2L, LONGS, part));
+            }
+        }
+        return total.reduceLanes(VectorOperators.ADD) + super.netFlow(tail, head, flow, i, to, s);
+    }
+}